@@ -0,0 +1,138 @@
+package com.gottomy2.departures.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.gottomy2.departures.config.CompactFlightsMessageConverter;
+import com.gottomy2.departures.dto.CompactFlights;
+import com.gottomy2.departures.dto.FlightField;
+import com.gottomy2.departures.dto.FlightView;
+import com.gottomy2.departures.model.Flight;
+import com.gottomy2.departures.model.FlightStatus;
+import com.gottomy2.departures.model.FlightZone;
+import com.gottomy2.departures.model.Gate;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.PagedModel;
+import org.springframework.hateoas.mediatype.MessageResolver;
+import org.springframework.hateoas.mediatype.hal.CurieProvider;
+import org.springframework.hateoas.mediatype.hal.Jackson2HalModule;
+import org.springframework.hateoas.server.core.DefaultLinkRelationProvider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Serializacja strony lotów: HAL ({@code PagedModel<EntityModel<Flight>>}, jak w GET /api/flights)
+ * wobec zwykłej listy płaskich DTO (jak w view=flat bez opakowania) i view=compact
+ * ({@link CompactFlightsMessageConverter}, pola domyślne i {@code fields=flightNumber,status,gate}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FlightSerializationBenchmark {
+
+    @Param({"20", "100"})
+    public int pageSize;
+
+    private ObjectMapper halMapper;
+    private ObjectMapper plainMapper;
+    private PagedModel<EntityModel<Flight>> pagedModel;
+    private List<FlightView> views;
+    private CompactFlightsMessageConverter compactConverter;
+    private CompactFlights compactDefault;
+    private CompactFlights compactSparse;
+
+    @Setup
+    public void setUp() {
+        halMapper = JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .addModule(new Jackson2HalModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .handlerInstantiator(new Jackson2HalModule.HalHandlerInstantiator(new DefaultLinkRelationProvider(),
+                        CurieProvider.NONE, MessageResolver.DEFAULTS_ONLY))
+                .build();
+        plainMapper = JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        LocalDateTime start = LocalDateTime.of(2025, 1, 14, 6, 0);
+        List<Flight> flights = IntStream.range(0, pageSize)
+                .mapToObj(i -> Flight.builder()
+                        .id((long) i)
+                        .flightNumber("LO" + (100 + i))
+                        .destination("Oslo")
+                        .status(FlightStatus.PLANOWANY)
+                        .zone(FlightZone.SCHENGEN)
+                        .departureTime(start.plusMinutes(5L * i))
+                        .temperature(-3.5)
+                        .gate(new Gate((long) (i % 20), "B" + (i % 20)))
+                        .version(0L)
+                        .build())
+                .toList();
+
+        pagedModel = PagedModel.of(flights.stream().map(EntityModel::of).toList(),
+                new PagedModel.PageMetadata(pageSize, 0, 1000),
+                Link.of("http://localhost:8080/api/flights?page=0&size=" + pageSize),
+                Link.of("http://localhost:8080/api/flights?page=1&size=" + pageSize, "next"));
+        views = flights.stream().map(FlightView::of).toList();
+        compactConverter = new CompactFlightsMessageConverter(plainMapper);
+        compactDefault = new CompactFlights(views, FlightField.parse(null));
+        compactSparse = new CompactFlights(views, FlightField.parse("flightNumber,status,gate"));
+    }
+
+    @Benchmark
+    public byte[] halPagedModel() throws Exception {
+        return halMapper.writeValueAsBytes(pagedModel);
+    }
+
+    @Benchmark
+    public byte[] plainViewList() throws Exception {
+        return plainMapper.writeValueAsBytes(views);
+    }
+
+    @Benchmark
+    public byte[] compactDefaultFields() throws Exception {
+        return writeCompact(compactDefault);
+    }
+
+    @Benchmark
+    public byte[] compactSparseFields() throws Exception {
+        return writeCompact(compactSparse);
+    }
+
+    private byte[] writeCompact(CompactFlights compact) throws Exception {
+        BufferedOutputMessage output = new BufferedOutputMessage();
+        compactConverter.write(compact, MediaType.APPLICATION_JSON, output);
+        return output.body.toByteArray();
+    }
+
+    private static final class BufferedOutputMessage implements HttpOutputMessage {
+
+        private final HttpHeaders headers = new HttpHeaders();
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream(32 * 1024);
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.gottomy2.departures.benchmarks;
+
+import com.gottomy2.departures.model.Flight;
+import com.gottomy2.departures.model.FlightStatus;
+import com.gottomy2.departures.model.FlightZone;
+import com.gottomy2.departures.model.Gate;
+import com.gottomy2.specification.FlightFilter;
+import com.gottomy2.specification.FlightNumberMatch;
+import com.gottomy2.specification.FlightSpecification;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Koszt budowy predykatów Criteria API przez FlightSpecification.filterFlights - bez wykonywania zapytania.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FlightSpecificationBenchmark {
+
+    @Param({"EMPTY", "NUMBER_STATUS_ZONE", "BOARD_WINDOW"})
+    public String filter;
+
+    private SessionFactory sessionFactory;
+    private EntityManager entityManager;
+    private CriteriaBuilder criteriaBuilder;
+    private FlightFilter flightFilter;
+
+    @Setup
+    public void setUp() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(Flight.class)
+                .addAnnotatedClass(Gate.class)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_URL, "jdbc:h2:mem:benchmark")
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "none")
+                .buildSessionFactory();
+        entityManager = sessionFactory.createEntityManager();
+        criteriaBuilder = entityManager.getCriteriaBuilder();
+
+        LocalDateTime now = LocalDateTime.of(2025, 1, 14, 6, 0);
+        flightFilter = switch (filter) {
+            case "EMPTY" -> FlightFilter.of(null, null, null);
+            case "NUMBER_STATUS_ZONE" -> new FlightFilter("lo", FlightNumberMatch.PREFIX, FlightStatus.PLANOWANY,
+                    FlightZone.SCHENGEN, null, null, false);
+            case "BOARD_WINDOW" -> new FlightFilter(null, null, null, FlightZone.SCHENGEN, now, now.plusHours(3), true);
+            default -> throw new IllegalArgumentException(filter);
+        };
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManager.close();
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public Predicate filterFlights() {
+        CriteriaQuery<Flight> query = criteriaBuilder.createQuery(Flight.class);
+        Root<Flight> root = query.from(Flight.class);
+        return FlightSpecification.filterFlights(flightFilter).toPredicate(root, query, criteriaBuilder);
+    }
+}
@@ -0,0 +1,64 @@
+package com.gottomy2.departures.benchmarks;
+
+import com.gottomy2.departures.security.JwtUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wystawienie tokenu oraz weryfikacja z pełnym parsowaniem podpisu i z cache zweryfikowanych tokenów.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JwtBenchmark {
+
+    // Więcej tokenów niż mieści mały cache, więc verifyParsed prawie zawsze parsuje i sprawdza podpis
+    private static final int TOKENS = 4096;
+
+    private final UserDetails user = new User("admin", "secret", List.of());
+
+    private JwtUtil cachingJwtUtil;
+    private JwtUtil parsingJwtUtil;
+    private String cachedToken;
+    private String[] tokens;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        cachingJwtUtil = new JwtUtil(10_000, new SimpleMeterRegistry());
+        parsingJwtUtil = new JwtUtil(16, new SimpleMeterRegistry());
+        cachedToken = cachingJwtUtil.generateToken(user);
+        cachingJwtUtil.verify(cachedToken);
+
+        tokens = new String[TOKENS];
+        for (int i = 0; i < TOKENS; i++) {
+            tokens[i] = parsingJwtUtil.generateToken(new User("user-" + i, "secret", List.of()));
+        }
+    }
+
+    @Benchmark
+    public String generate() {
+        return cachingJwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public Optional<JwtUtil.VerifiedToken> verifyParsed() {
+        String token = tokens[next];
+        next = (next + 1) % TOKENS;
+        return parsingJwtUtil.verify(token);
+    }
+
+    @Benchmark
+    public Optional<JwtUtil.VerifiedToken> verifyCached() {
+        return cachingJwtUtil.verify(cachedToken);
+    }
+}
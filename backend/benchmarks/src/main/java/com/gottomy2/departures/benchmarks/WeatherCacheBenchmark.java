@@ -0,0 +1,80 @@
+package com.gottomy2.departures.benchmarks;
+
+import com.gottomy2.departures.dto.WeatherKey;
+import com.gottomy2.departures.service.WeatherCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Odczyty z WeatherCache przy wielu wątkach: rozproszone po wielu kluczach, wszystkie w jeden gorący klucz
+ * oraz odczyty przeplatane zapisami. Wszystkie klucze są w cache, więc dostawca pogody nie jest wołany.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WeatherCacheBenchmark {
+
+    private static final String[] CITIES = {"Oslo", "Paryż", "Rzym", "Londyn", "Berlin", "Madryt", "Wiedeń", "Praga"};
+    private static final int DAYS = 1000;
+
+    private ExecutorService executor;
+    private WeatherCache weatherCache;
+    private WeatherKey[] keys;
+
+    @Setup
+    public void setUp() {
+        executor = Executors.newSingleThreadExecutor();
+        weatherCache = new WeatherCache(null, executor, new SimpleMeterRegistry(), 100_000,
+                Duration.ofHours(1), Duration.ofHours(1), Duration.ofMinutes(5));
+
+        LocalDate start = LocalDate.of(2025, 1, 1);
+        keys = new WeatherKey[CITIES.length * DAYS];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = new WeatherKey(CITIES[i % CITIES.length], start.plusDays(i / CITIES.length));
+            weatherCache.put(keys[i], (double) (i % 30));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public CompletableFuture<Double> spreadKeys() {
+        return weatherCache.get(keys[ThreadLocalRandom.current().nextInt(keys.length)]);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public CompletableFuture<Double> hotKey() {
+        return weatherCache.get(keys[0]);
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(7)
+    public CompletableFuture<Double> readWhileWriting() {
+        return weatherCache.get(keys[ThreadLocalRandom.current().nextInt(keys.length)]);
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(1)
+    public void write() {
+        int i = ThreadLocalRandom.current().nextInt(keys.length);
+        weatherCache.put(keys[i], (double) (i % 30));
+    }
+}
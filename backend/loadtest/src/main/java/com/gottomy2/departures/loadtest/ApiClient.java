@@ -0,0 +1,155 @@
+package com.gottomy2.departures.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Klient REST API backendu dla scenariuszy. Token JWT wygasa po godzinie, więc odpowiedź 401
+ * na żądanie uwierzytelnione powoduje jednorazowe ponowne logowanie.
+ */
+final class ApiClient {
+
+    record Dataset(long minId, long maxId, LocalDateTime firstDeparture, LocalDateTime lastDeparture) {
+    }
+
+    private final HttpClient http;
+    private final String baseUrl;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final String username;
+    private final String password;
+    private volatile String token;
+
+    ApiClient(String baseUrl, String username, String password) {
+        this.http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.username = username;
+        this.password = password;
+    }
+
+    ObjectMapper mapper() {
+        return mapper;
+    }
+
+    static String encode(Object value) {
+        return URLEncoder.encode(String.valueOf(value), StandardCharsets.UTF_8);
+    }
+
+    HttpResponse<byte[]> get(String path, String ifNoneMatch) {
+        HttpRequest.Builder request = request(path).GET();
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        return send(request.build());
+    }
+
+    HttpResponse<byte[]> getAuthenticated(String path) {
+        return sendAuthenticated(path, "GET", null);
+    }
+
+    HttpResponse<byte[]> sendAuthenticated(String path, String method, Object body) {
+        HttpResponse<byte[]> response = send(authenticated(path, method, body));
+        if (response.statusCode() == 401) {
+            login();
+            response = send(authenticated(path, method, body));
+        }
+        return response;
+    }
+
+    JsonNode json(HttpResponse<byte[]> response) {
+        try {
+            return mapper.readTree(response.body());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    synchronized void login() {
+        HttpResponse<byte[]> response = send(request("/api/auth/login")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(write(Map.of("username", username, "password", password))))
+                .build());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login as " + username + " failed with " + response.statusCode());
+        }
+        token = json(response).path("token").asText();
+    }
+
+    /**
+     * Zakres identyfikatorów i odlotów w bazie - scenariusze losują z niego loty i okna czasowe.
+     */
+    Dataset dataset() {
+        JsonNode first = firstFlight("id,asc");
+        JsonNode last = firstFlight("id,desc");
+        JsonNode earliest = firstFlight("departureTime,asc");
+        JsonNode latest = firstFlight("departureTime,desc");
+        return new Dataset(first.path("id").asLong(), last.path("id").asLong(),
+                LocalDateTime.parse(earliest.path("departureTime").asText()),
+                LocalDateTime.parse(latest.path("departureTime").asText()));
+    }
+
+    private JsonNode firstFlight(String sort) {
+        HttpResponse<byte[]> response = get("/api/flights?view=flat&size=1&sort=" + encode(sort), null);
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET /api/flights failed with " + response.statusCode());
+        }
+        // Nazwa kolekcji w _embedded zależy od typu, bierzemy pierwszą
+        Iterator<JsonNode> collections = json(response).path("_embedded").elements();
+        JsonNode flights = collections.hasNext() ? collections.next() : null;
+        if (flights == null || flights.isEmpty()) {
+            throw new IllegalStateException("No flights in the database, run DataGenerator first");
+        }
+        return flights.get(0);
+    }
+
+    private HttpRequest authenticated(String path, String method, Object body) {
+        if (token == null) {
+            login();
+        }
+        HttpRequest.Builder request = request(path).header("Authorization", "Bearer " + token);
+        if (body == null) {
+            return request.method(method, HttpRequest.BodyPublishers.noBody()).build();
+        }
+        return request.header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofByteArray(write(body)))
+                .build();
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30));
+    }
+
+    private HttpResponse<byte[]> send(HttpRequest request) {
+        try {
+            return http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private byte[] write(Object body) {
+        try {
+            return mapper.writeValueAsBytes(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.gottomy2.departures.loadtest;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generuje loty i gate'y do lokalnej bazy Postgres przez {@code COPY ... FROM STDIN}.
+ * Schemat musi już istnieć (backend uruchomiony raz z Liquibase). Przy tym samym {@code --seed}
+ * dane są identyczne, więc wyniki testów obciążeniowych da się porównywać.
+ */
+public final class DataGenerator {
+
+    private static final String[] DESTINATIONS = {"Paryż", "Londyn", "Oslo", "Berlin", "Warszawa", "Sydney",
+            "Moskwa", "Nowy Jork", "Madryt", "Tokio", "Rzym", "Wiedeń", "Praga", "Dubaj", "Lizbona", "Ateny"};
+    private static final String[] AIRLINES = {"LO", "LH", "AF", "BA", "FR", "KL", "W6", "SK"};
+    private static final String[] GATE_PIERS = {"A", "B", "C", "D", "E", "F", "G", "H", "J", "K", "L", "M"};
+    private static final int GATES_PER_PIER = 20;
+    private static final int TURNAROUND_MINUTES = 45;
+    private static final int COPY_BUFFER = 1 << 16;
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final Connection connection;
+    private final Random random;
+
+    private DataGenerator(Connection connection, Random random) {
+        this.connection = connection;
+        this.random = random;
+    }
+
+    public static void main(String[] argv) throws SQLException {
+        Args args = Args.parse(argv);
+        int flights = args.integer("flights", 1_000_000);
+        int gates = args.integer("gates", 200);
+        int days = args.integer("days", 60);
+        if (gates < 1 || gates > GATE_PIERS.length * GATES_PER_PIER) {
+            throw new IllegalArgumentException("--gates must be between 1 and " + GATE_PIERS.length * GATES_PER_PIER);
+        }
+
+        String url = args.string("jdbc-url", "jdbc:postgresql://localhost:5432/departures");
+        try (Connection connection = DriverManager.getConnection(url,
+                args.string("db-user", "postgres"), args.string("db-password", "postgres"))) {
+            connection.setAutoCommit(false);
+            DataGenerator generator = new DataGenerator(connection, new Random(args.integer("seed", 42)));
+
+            if (args.flag("truncate")) {
+                generator.execute("TRUNCATE flights, gates CASCADE");
+            }
+            List<Long> gateIds = generator.copyGates(gates);
+            LocalDateTime start = LocalDate.now().minusDays(days / 2).atStartOfDay();
+            generator.copyFlights(flights, gateIds, start, days);
+            generator.upsertUser(args.string("user", "loadtest"), args.string("password", "loadtest"));
+            connection.commit();
+
+            // Statystyki planera po załadowaniu milionów wierszy, poza transakcją
+            connection.setAutoCommit(true);
+            generator.execute("ANALYZE gates");
+            generator.execute("ANALYZE flights");
+        }
+    }
+
+    private List<Long> copyGates(int count) throws SQLException {
+        StringBuilder rows = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            rows.append(GATE_PIERS[i / GATES_PER_PIER]).append(i % GATES_PER_PIER + 1).append('\n');
+        }
+        // Gate'y z danych startowych (A1..H20) zostają, dochodzą tylko brakujące
+        execute("CREATE TEMPORARY TABLE gates_load (gate_number varchar(10)) ON COMMIT DROP");
+        CopyIn copy = copyIn("COPY gates_load (gate_number) FROM STDIN WITH (FORMAT csv)");
+        write(copy, rows);
+        copy.endCopy();
+        execute("INSERT INTO gates (gate_number) SELECT gate_number FROM gates_load "
+                + "ON CONFLICT (gate_number) DO NOTHING");
+
+        Map<String, Long> ids = new LinkedHashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT g.id, g.gate_number FROM gates g "
+                     + "JOIN gates_load l ON l.gate_number = g.gate_number ORDER BY g.id")) {
+            while (rs.next()) {
+                ids.put(rs.getString(2), rs.getLong(1));
+            }
+        }
+        System.out.printf("Gates: %d%n", ids.size());
+        return new ArrayList<>(ids.values());
+    }
+
+    /**
+     * Loty rozłożone po gate'ach co stały odstęp - przesunięcie w obrębie slotu nie przekracza
+     * czasu obsługi, więc przy odstępie dłuższym niż 45 minut nie powstają konflikty gate'ów.
+     */
+    private void copyFlights(int count, List<Long> gateIds, LocalDateTime start, int days) throws SQLException {
+        long firstId = queryLong("SELECT COALESCE(MAX(id), 0) + 1 FROM flights");
+        int perGate = (count + gateIds.size() - 1) / gateIds.size();
+        long slotMinutes = Math.max(1, (long) days * 24 * 60 / perGate);
+        int jitter = (int) Math.max(1, slotMinutes - TURNAROUND_MINUTES);
+
+        long begin = System.nanoTime();
+        CopyIn copy = copyIn("COPY flights (id, flight_number, destination, status, departure_time, zone, gate_id, "
+                + "temperature, version) FROM STDIN WITH (FORMAT csv)");
+        StringBuilder rows = new StringBuilder(COPY_BUFFER + 256);
+        for (int i = 0; i < count; i++) {
+            int gate = i % gateIds.size();
+            LocalDateTime departure = start.plusMinutes((i / gateIds.size()) * slotMinutes + random.nextInt(jitter));
+
+            rows.append(firstId + i).append(',')
+                    .append(AIRLINES[random.nextInt(AIRLINES.length)]).append(100 + random.nextInt(9900)).append(',')
+                    .append(DESTINATIONS[random.nextInt(DESTINATIONS.length)]).append(',')
+                    .append(status()).append(',')
+                    .append(TIMESTAMP.format(departure)).append(',')
+                    .append(random.nextInt(10) < 6 ? "SCHENGEN" : "NON_SCHENGEN").append(',')
+                    .append(gateIds.get(gate)).append(',');
+            // Brak temperatury uruchamia pobieranie pogody przy odczycie
+            if (random.nextInt(10) < 8) {
+                rows.append(String.format(Locale.ROOT, "%.1f", random.nextDouble() * 50 - 15));
+            }
+            rows.append(",0\n");
+
+            if (rows.length() >= COPY_BUFFER) {
+                write(copy, rows);
+            }
+            if ((i + 1) % 500_000 == 0) {
+                System.out.printf("Flights: %d / %d%n", i + 1, count);
+            }
+        }
+        write(copy, rows);
+        long copied = copy.endCopy();
+
+        // Sekwencja z allocationSize 50 (changeset 13) musi wskazywać za ostatnie wygenerowane id
+        execute("SELECT setval('flights_seq', (SELECT MAX(id) FROM flights) + 50)");
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        System.out.printf("Flights: %d in %.1f s (%.0f rows/s)%n", copied, seconds, copied / seconds);
+    }
+
+    private String status() {
+        int roll = random.nextInt(100);
+        if (roll < 75) {
+            return "PLANOWANY";
+        }
+        if (roll < 85) {
+            return "ODPRAWA";
+        }
+        return roll < 95 ? "OPÓŹNIONY" : "ODWOŁANY";
+    }
+
+    private void upsertUser(String username, String password) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("INSERT INTO users (username, password) "
+                + "VALUES (?, ?) ON CONFLICT (username) DO UPDATE SET password = EXCLUDED.password")) {
+            statement.setString(1, username);
+            statement.setString(2, new BCryptPasswordEncoder().encode(password));
+            statement.executeUpdate();
+        }
+        System.out.printf("User: %s%n", username);
+    }
+
+    private CopyIn copyIn(String sql) throws SQLException {
+        return connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql);
+    }
+
+    private static void write(CopyIn copy, StringBuilder rows) throws SQLException {
+        byte[] bytes = rows.toString().getBytes(StandardCharsets.UTF_8);
+        copy.writeToCopy(bytes, 0, bytes.length);
+        rows.setLength(0);
+    }
+
+    private long queryLong(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
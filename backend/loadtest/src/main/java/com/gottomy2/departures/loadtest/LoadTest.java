@@ -0,0 +1,157 @@
+package com.gottomy2.departures.loadtest;
+
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Uruchamia scenariusze po kolei i dla każdego raportuje przepustowość, percentyle opóźnień i kody odpowiedzi.
+ * Bez {@code --rate} każdy wątek wysyła kolejne żądanie zaraz po odpowiedzi (obciążenie zamknięte).
+ * Z {@code --rate} żądania mają stały harmonogram, a opóźnienie liczone jest od planowanego startu,
+ * więc zator po stronie serwera nie zaniża percentyli.
+ */
+public final class LoadTest {
+
+    record Result(String scenario,
+                  int threads,
+                  double targetRate,
+                  double seconds,
+                  long operations,
+                  double throughput,
+                  long errors,
+                  Map<String, Long> statuses,
+                  Map<String, Double> latencyMs) {
+    }
+
+    public static void main(String[] argv) throws Exception {
+        Args args = Args.parse(argv);
+        List<Scenario> scenarios = Arrays.stream(args.string("scenarios", "board,search,edit,bulk").split(","))
+                .map(name -> Scenario.valueOf(name.trim().toUpperCase(Locale.ROOT)))
+                .toList();
+        int threads = args.integer("threads", 16);
+        double rate = args.decimal("rate", 0);
+        Duration warmup = args.duration("warmup", Duration.ofSeconds(10));
+        Duration duration = args.duration("duration", Duration.ofSeconds(60));
+
+        ApiClient client = new ApiClient(args.string("base-url", "http://localhost:8080"),
+                args.string("user", "loadtest"), args.string("password", "loadtest"));
+        ApiClient.Dataset dataset = client.dataset();
+        if (scenarios.stream().anyMatch(Scenario::authenticated)) {
+            client.login();
+        }
+        System.out.printf("Flights %d..%d, departures %s..%s%n",
+                dataset.minId(), dataset.maxId(), dataset.firstDeparture(), dataset.lastDeparture());
+
+        List<Result> results = new ArrayList<>();
+        for (Scenario scenario : scenarios) {
+            Result result = run(scenario, client, dataset, threads, rate, warmup, duration);
+            print(result);
+            results.add(result);
+        }
+
+        String json = args.string("json", null);
+        if (json != null) {
+            client.mapper().writer(SerializationFeature.INDENT_OUTPUT).writeValue(new File(json), results);
+            System.out.printf("Results written to %s%n", json);
+        }
+    }
+
+    private static Result run(Scenario scenario, ApiClient client, ApiClient.Dataset dataset,
+                              int threads, double rate, Duration warmup, Duration duration) throws InterruptedException {
+        Recorder recorder = new Recorder(3);
+        Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        // Odstęp między żądaniami jednego wątku przy zadanym tempie całkowitym
+        long interval = rate > 0 ? (long) (threads * 1e9 / rate) : 0;
+        SplittableRandom seeds = new SplittableRandom(42);
+
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            Random random = new Random(seeds.nextLong());
+            long offset = interval * t / threads;
+            Thread worker = new Thread(() -> {
+                try {
+                    Map<String, String> session = new HashMap<>();
+                    for (long k = 0; ; k++) {
+                        long scheduled = interval > 0 ? start + offset + k * interval : System.nanoTime();
+                        if (scheduled >= end) {
+                            return;
+                        }
+                        long now = System.nanoTime();
+                        if (scheduled > now) {
+                            LockSupport.parkNanos(scheduled - now);
+                        }
+
+                        int status;
+                        try {
+                            status = scenario.execute(client, dataset, session, random);
+                        } catch (RuntimeException e) {
+                            status = 0;
+                        }
+                        if (scheduled >= measureFrom) {
+                            recorder.recordValue(Math.max(1, (System.nanoTime() - scheduled) / 1000));
+                            statuses.computeIfAbsent(status, code -> new LongAdder()).increment();
+                        }
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }, scenario.name().toLowerCase(Locale.ROOT) + "-" + t);
+            worker.setDaemon(true);
+            worker.start();
+        }
+        done.await();
+
+        Histogram histogram = recorder.getIntervalHistogram();
+        Map<String, Long> byStatus = new TreeMap<>();
+        long errors = 0;
+        for (Map.Entry<Integer, LongAdder> entry : statuses.entrySet()) {
+            int status = entry.getKey();
+            long count = entry.getValue().sum();
+            byStatus.put(status == 0 ? "io_error" : String.valueOf(status), count);
+            if (status == 0 || status >= 400) {
+                errors += count;
+            }
+        }
+
+        Map<String, Double> latency = new LinkedHashMap<>();
+        latency.put("mean", histogram.getMean() / 1000);
+        for (double percentile : new double[]{50, 90, 95, 99, 99.9}) {
+            latency.put("p" + (percentile % 1 == 0 ? String.valueOf((int) percentile) : String.valueOf(percentile)),
+                    histogram.getValueAtPercentile(percentile) / 1000.0);
+        }
+        latency.put("max", histogram.getMaxValue() / 1000.0);
+
+        double seconds = duration.toNanos() / 1e9;
+        long operations = histogram.getTotalCount();
+        return new Result(scenario.name().toLowerCase(Locale.ROOT), threads, rate, seconds, operations,
+                operations / seconds, errors, byStatus, latency);
+    }
+
+    private static void print(Result result) {
+        Map<String, Double> latency = result.latencyMs();
+        System.out.printf(Locale.ROOT, "%-7s %8d ops %9.1f ops/s %6d errors | ms p50 %.1f p90 %.1f p99 %.1f p99.9 %.1f max %.1f | %s%n",
+                result.scenario(), result.operations(), result.throughput(), result.errors(),
+                latency.get("p50"), latency.get("p90"), latency.get("p99"), latency.get("p99.9"), latency.get("max"),
+                result.statuses());
+    }
+}
@@ -0,0 +1,108 @@
+package com.gottomy2.departures.loadtest;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Jedna operacja scenariusza zwraca kod HTTP ostatniego żądania; {@code session} to stan jednego
+ * wirtualnego użytkownika (np. ETagi tablicy), {@code dataset} - zakres danych do losowania.
+ */
+enum Scenario {
+
+    /**
+     * Tablica odlotów odpytująca co chwilę o najbliższe loty strefy, z If-None-Match jak przeglądarka.
+     */
+    BOARD(false) {
+        @Override
+        int execute(ApiClient client, ApiClient.Dataset dataset, Map<String, String> session, Random random) {
+            String zone = ZONES[random.nextInt(ZONES.length)];
+            HttpResponse<byte[]> response = client.get("/api/flights?upcoming=true&zone=" + zone
+                    + "&sort=departureTime,asc&size=50", session.get(zone));
+            response.headers().firstValue("ETag").ifPresent(etag -> session.put(zone, etag));
+            return response.statusCode();
+        }
+    },
+
+    /**
+     * Wyszukiwanie: prefiks numeru lotu, status w oknie jednego dnia albo strona listy strefy.
+     */
+    SEARCH(false) {
+        @Override
+        int execute(ApiClient client, ApiClient.Dataset dataset, Map<String, String> session, Random random) {
+            String query = switch (random.nextInt(3)) {
+                case 0 -> "flightNumber=" + AIRLINES[random.nextInt(AIRLINES.length)] + (1 + random.nextInt(9))
+                        + "&flightNumberMatch=PREFIX";
+                case 1 -> {
+                    LocalDateTime from = randomTime(dataset, random);
+                    yield "status=" + ApiClient.encode(STATUSES[random.nextInt(STATUSES.length)])
+                            + "&departureFrom=" + ApiClient.encode(from)
+                            + "&departureTo=" + ApiClient.encode(from.plusDays(1));
+                }
+                default -> "zone=" + ZONES[random.nextInt(ZONES.length)] + "&page=" + random.nextInt(5);
+            };
+            return client.get("/api/flights?" + query + "&size=20", null).statusCode();
+        }
+    },
+
+    /**
+     * Edycja jednego lotu przez zalogowanego użytkownika: odczyt, zmiana statusu i temperatury, zapis.
+     */
+    EDIT(true) {
+        @Override
+        int execute(ApiClient client, ApiClient.Dataset dataset, Map<String, String> session, Random random) {
+            long id = dataset.minId() + (long) (random.nextDouble() * (dataset.maxId() - dataset.minId() + 1));
+            HttpResponse<byte[]> response = client.getAuthenticated("/api/flights/" + id);
+            if (response.statusCode() != 200) {
+                return response.statusCode();
+            }
+            ObjectNode flight = (ObjectNode) client.json(response);
+            flight.put("status", STATUSES[random.nextInt(STATUSES.length)]);
+            flight.put("temperature", Math.round((random.nextDouble() * 50 - 15) * 10) / 10.0);
+            return client.sendAuthenticated("/api/flights/" + id, "PUT", flight).statusCode();
+        }
+    },
+
+    /**
+     * Masowa zmiana statusu wszystkich lotów strefy w 15-minutowym oknie odlotów.
+     */
+    BULK(true) {
+        @Override
+        int execute(ApiClient client, ApiClient.Dataset dataset, Map<String, String> session, Random random) {
+            LocalDateTime from = randomTime(dataset, random);
+            Map<String, Object> request = new LinkedHashMap<>();
+            request.put("filter", Map.of("zone", ZONES[random.nextInt(ZONES.length)]));
+            request.put("departureFrom", from.toString());
+            request.put("departureTo", from.plus(BULK_WINDOW).toString());
+            request.put("status", random.nextBoolean() ? "OPÓŹNIONY" : "PLANOWANY");
+            return client.sendAuthenticated("/api/flights/status", "PATCH", request).statusCode();
+        }
+    };
+
+    private static final String[] ZONES = {"SCHENGEN", "NON_SCHENGEN"};
+    private static final String[] STATUSES = {"PLANOWANY", "ODPRAWA", "OPÓŹNIONY"};
+    private static final String[] AIRLINES = {"LO", "LH", "AF", "BA", "FR", "KL", "W6", "SK"};
+    private static final Duration BULK_WINDOW = Duration.ofMinutes(15);
+
+    private final boolean authenticated;
+
+    Scenario(boolean authenticated) {
+        this.authenticated = authenticated;
+    }
+
+    boolean authenticated() {
+        return authenticated;
+    }
+
+    abstract int execute(ApiClient client, ApiClient.Dataset dataset, Map<String, String> session, Random random);
+
+    private static LocalDateTime randomTime(ApiClient.Dataset dataset, Random random) {
+        long minutes = Duration.between(dataset.firstDeparture(), dataset.lastDeparture()).toMinutes();
+        return dataset.firstDeparture().plusMinutes((long) (random.nextDouble() * Math.max(1, minutes)));
+    }
+}
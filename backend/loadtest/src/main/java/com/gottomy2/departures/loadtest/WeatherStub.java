@@ -0,0 +1,143 @@
+package com.gottomy2.departures.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lokalny zamiennik API pogodowego (endpointy {@code /weather} i {@code /forecast} w formacie OpenWeatherMap)
+ * z konfigurowalnym opóźnieniem i odsetkiem błędów. Temperatura zależy tylko od miasta i godziny,
+ * więc kolejne przebiegi dostają te same dane. Backend wskazuje na stub przez {@code weather.api.base-url}.
+ */
+public final class WeatherStub {
+
+    private static final DateTimeFormatter FORECAST_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int FORECAST_ENTRIES = 40;
+
+    private final Duration latency;
+    private final Duration jitter;
+    private final double errorRate;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    private WeatherStub(Duration latency, Duration jitter, double errorRate) {
+        this.latency = latency;
+        this.jitter = jitter;
+        this.errorRate = errorRate;
+    }
+
+    public static void main(String[] argv) throws IOException {
+        Args args = Args.parse(argv);
+        int port = args.integer("port", 8089);
+        WeatherStub stub = new WeatherStub(args.duration("latency", Duration.ofMillis(100)),
+                args.duration("jitter", Duration.ofMillis(50)), args.decimal("error-rate", 0));
+
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 1024);
+        server.createContext("/", stub::handle);
+        // Opóźnienie usypia wątek, więc pula nie może ograniczać liczby równoległych odpowiedzi
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop(0);
+            System.out.printf("Requests: %d, errors: %d%n", stub.requests.get(), stub.errors.get());
+        }));
+        System.out.printf("Weather stub on http://localhost:%d/data/2.5 (latency %d ms ± %d ms, error rate %.3f)%n",
+                port, stub.latency.toMillis(), stub.jitter.toMillis(), stub.errorRate);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            requests.incrementAndGet();
+            sleep();
+
+            String path = exchange.getRequestURI().getPath();
+            String city = queryParam(exchange, "q");
+            if (ThreadLocalRandom.current().nextDouble() < errorRate) {
+                errors.incrementAndGet();
+                respond(exchange, 503, "{\"cod\":503,\"message\":\"stubbed failure\"}");
+            } else if (city == null) {
+                respond(exchange, 400, "{\"cod\":\"400\",\"message\":\"Nothing to geocode\"}");
+            } else if (path.endsWith("/weather")) {
+                respond(exchange, 200, current(city));
+            } else if (path.endsWith("/forecast")) {
+                respond(exchange, 200, forecast(city));
+            } else {
+                respond(exchange, 404, "{\"cod\":\"404\",\"message\":\"Internal error\"}");
+            }
+        }
+    }
+
+    private String current(String city) {
+        return String.format(Locale.ROOT, "{\"name\":\"%s\",\"main\":{\"temp\":%.1f}}",
+                city, temperature(city, LocalDateTime.now()));
+    }
+
+    private String forecast(String city) {
+        LocalDateTime time = LocalDateTime.now().withMinute(0).withSecond(0).withNano(0);
+        time = time.withHour(time.getHour() / 3 * 3);
+        StringBuilder body = new StringBuilder("{\"city\":{\"name\":\"").append(city).append("\"},\"list\":[");
+        for (int i = 0; i < FORECAST_ENTRIES; i++, time = time.plusHours(3)) {
+            if (i > 0) {
+                body.append(',');
+            }
+            body.append(String.format(Locale.ROOT, "{\"dt_txt\":\"%s\",\"main\":{\"temp\":%.1f}}",
+                    FORECAST_TIME_FORMAT.format(time), temperature(city, time)));
+        }
+        return body.append("]}").toString();
+    }
+
+    // Stała dla miasta plus dobowa sinusoida z maksimum około 15:00
+    private static double temperature(String city, LocalDateTime time) {
+        double base = Math.floorMod(city.hashCode(), 30) - 5;
+        return base + 6 * Math.sin((time.getHour() - 9) * Math.PI / 12);
+    }
+
+    private void sleep() {
+        long millis = latency.toMillis();
+        if (!jitter.isZero()) {
+            millis += ThreadLocalRandom.current().nextLong(-jitter.toMillis(), jitter.toMillis() + 1);
+        }
+        if (millis > 0) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static String queryParam(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.substring(0, eq).equals(name)) {
+                return URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.gottomy2.board;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.liquibase.LiquibaseAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.reactive.ReactiveSecurityAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.reactive.ReactiveUserDetailsServiceAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.security.reactive.ReactiveManagementWebSecurityAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+/**
+ * Reaktywna, publiczna tablica odlotów: WebFlux + R2DBC, bez JPA i bez Spring Security.
+ * Osobny proces obok głównej aplikacji, z własną konfiguracją w {@code board.properties};
+ * schematem bazy (Liquibase), zapisami i pobieraniem pogody do bazy zarządza główna aplikacja.
+ */
+@SpringBootApplication(exclude = {
+        DataSourceAutoConfiguration.class,
+        DataSourceTransactionManagerAutoConfiguration.class,
+        HibernateJpaAutoConfiguration.class,
+        LiquibaseAutoConfiguration.class,
+        ReactiveSecurityAutoConfiguration.class,
+        ReactiveUserDetailsServiceAutoConfiguration.class,
+        ReactiveManagementWebSecurityAutoConfiguration.class
+})
+public class BoardApplication {
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(BoardApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .properties("spring.config.name=board")
+                .run(args);
+    }
+}
@@ -0,0 +1,56 @@
+package com.gottomy2.board.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.web.ReactivePageableHandlerMethodArgumentResolver;
+import org.springframework.data.web.ReactiveSortHandlerMethodArgumentResolver;
+import org.springframework.hateoas.config.EnableHypermediaSupport;
+import org.springframework.hateoas.support.WebStack;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.result.method.annotation.ArgumentResolverConfigurer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+@Configuration
+@EnableHypermediaSupport(type = EnableHypermediaSupport.HypermediaType.HAL, stacks = WebStack.WEBFLUX)
+public class BoardWebConfig implements WebFluxConfigurer {
+
+    // Tomcat jest na classpath przez główną aplikację - tablica ma działać na pętli zdarzeń Netty
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    // page, size i sort jak w MVC (Spring Data: strony od 0, domyślnie 20, najwyżej 2000)
+    @Override
+    public void configureArgumentResolvers(ArgumentResolverConfigurer configurer) {
+        ReactiveSortHandlerMethodArgumentResolver sortResolver = new ReactiveSortHandlerMethodArgumentResolver();
+        configurer.addCustomResolver(sortResolver, new ReactivePageableHandlerMethodArgumentResolver(sortResolver));
+    }
+
+    @Bean
+    public WebClient weatherWebClient(WebClient.Builder builder,
+                                      @Value("${weather.api.base-url:https://api.openweathermap.org/data/2.5}") String baseUrl,
+                                      @Value("${weather.http.max-connections:32}") int maxConnections,
+                                      @Value("${weather.http.connect-timeout:1s}") Duration connectTimeout,
+                                      @Value("${weather.http.read-timeout:2s}") Duration readTimeout,
+                                      @Value("${weather.http.pool-timeout:200ms}") Duration poolTimeout) {
+        ConnectionProvider pool = ConnectionProvider.builder("weather")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(poolTimeout)
+                .build();
+        HttpClient httpClient = HttpClient.create(pool)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(readTimeout);
+        return builder.baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+}
@@ -0,0 +1,108 @@
+package com.gottomy2.board.controller;
+
+import com.gottomy2.board.service.BoardFlightService;
+import com.gottomy2.departures.model.Flight;
+import com.gottomy2.specification.FlightFilter;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.LinkRelation;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.hateoas.PagedModel;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Publiczna lista lotów - ta sama ścieżka, parametry i kształt odpowiedzi (HAL) co w {@code FlightController},
+ * więc proxy może kierować tu anonimowy ruch tablic bez zmian po stronie klientów.
+ */
+@RestController
+@RequestMapping("/api/flights")
+@CrossOrigin(origins = "*")
+public class BoardFlightController {
+
+    private final BoardFlightService flightService;
+
+    public BoardFlightController(BoardFlightService flightService) {
+        this.flightService = flightService;
+    }
+
+    // Pierwszy typ jest domyślny przy Accept: */* - jak HAL w MVC
+    @GetMapping(produces = {MediaTypes.HAL_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Mono<ResponseEntity<PagedModel<EntityModel<Flight>>>> getFlights(FlightFilter filter, Pageable pageable,
+                                                                            ServerWebExchange exchange) {
+        return flightService.getFlightsFiltered(filter, pageable)
+                .map(flights -> {
+                    String etag = etag(flights);
+                    if (exchange.checkNotModified(etag)) {
+                        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+                    }
+                    PagedModel<EntityModel<Flight>> model = PagedModel.of(
+                            flights.getContent().stream().map(EntityModel::of).toList(),
+                            new PagedModel.PageMetadata(flights.getSize(), flights.getNumber(), flights.getTotalElements(), flights.getTotalPages()),
+                            links(flights, exchange.getRequest()));
+                    return ResponseEntity.ok().eTag(etag).body(model);
+                });
+    }
+
+    /**
+     * Tablica nie ma licznika zmian głównej aplikacji, więc ETag liczony jest z odczytanej strony: wersje lotów
+     * i gate'ów, temperatury (także dociągnięte przy odczycie) i liczba wyników. 304 oszczędza serializację
+     * i transfer, nie zapytanie.
+     */
+    private static String etag(Page<Flight> flights) {
+        StringBuilder state = new StringBuilder()
+                .append(flights.getNumber()).append('/').append(flights.getSize()).append('/').append(flights.getTotalElements());
+        for (Flight flight : flights.getContent()) {
+            state.append(';').append(flight.getId()).append(':').append(flight.getVersion())
+                    .append(':').append(flight.getTemperature());
+            if (flight.getGate() != null) {
+                state.append(':').append(flight.getGate().getId()).append(':').append(flight.getGate().getVersion());
+            }
+        }
+        return "\"board-" + DigestUtils.md5DigestAsHex(state.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    // Odnośniki jak z PagedResourcesAssembler: pozostałe parametry zapytania bez zmian, podmieniony numer strony
+    private static List<Link> links(Page<Flight> flights, ServerHttpRequest request) {
+        List<Link> links = new ArrayList<>();
+        if (flights.getTotalPages() > 1) {
+            links.add(pageLink(request, 0, IanaLinkRelations.FIRST));
+        }
+        if (flights.hasPrevious()) {
+            links.add(pageLink(request, flights.getNumber() - 1, IanaLinkRelations.PREV));
+        }
+        links.add(Link.of(request.getURI().toString()));
+        if (flights.hasNext()) {
+            links.add(pageLink(request, flights.getNumber() + 1, IanaLinkRelations.NEXT));
+        }
+        if (flights.getTotalPages() > 1) {
+            links.add(pageLink(request, flights.getTotalPages() - 1, IanaLinkRelations.LAST));
+        }
+        return links;
+    }
+
+    private static Link pageLink(ServerHttpRequest request, int page, LinkRelation relation) {
+        String href = UriComponentsBuilder.fromUri(request.getURI())
+                .replaceQueryParam("page", page)
+                .build(true)
+                .toUriString();
+        return Link.of(href, relation);
+    }
+}
@@ -0,0 +1,116 @@
+package com.gottomy2.board.repository;
+
+import com.gottomy2.departures.model.Flight;
+import com.gottomy2.departures.model.FlightStatus;
+import com.gottomy2.departures.model.FlightZone;
+import com.gottomy2.departures.model.Gate;
+import com.gottomy2.specification.FlightFilter;
+import com.gottomy2.specification.FlightSqlFilter;
+import io.r2dbc.spi.Readable;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Odczyt stron lotów przez R2DBC. Filtr ma semantykę {@code FlightSpecification} (wspólny {@link FlightSqlFilter}),
+ * a loty mają kształt encji, więc odpowiedź nie różni się od {@code GET /api/flights} w głównej aplikacji.
+ */
+@Repository
+public class BoardFlightRepository {
+
+    private static final String SELECT = """
+            SELECT f.id, f.flight_number, f.destination, f.status, f.departure_time, f.zone, f.temperature, f.version,
+                   g.id AS gate_id, g.gate_number, g.version AS gate_version
+            FROM flights f
+            LEFT JOIN gates g ON g.id = f.gate_id
+            """;
+
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "id", "f.id",
+            "flightNumber", "f.flight_number",
+            "destination", "f.destination",
+            "status", "f.status",
+            "zone", "f.zone",
+            "departureTime", "f.departure_time",
+            "temperature", "f.temperature");
+
+    private final DatabaseClient databaseClient;
+
+    public BoardFlightRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<Page<Flight>> findAll(FlightFilter filter, Pageable pageable) {
+        FlightSqlFilter where = FlightSqlFilter.of(filter, LocalDateTime.now());
+        String sql = SELECT + where.where() + orderBy(pageable.getSort()) + " LIMIT :limit OFFSET :offset";
+
+        return databaseClient.sql(sql)
+                .bindValues(where.parameters())
+                .bind("limit", pageable.getPageSize())
+                .bind("offset", pageable.getOffset())
+                .map(BoardFlightRepository::toFlight)
+                .all()
+                .collectList()
+                .flatMap(flights -> {
+                    // Jak PageableExecutionUtils: COUNT tylko wtedy, gdy sama strona nie wyznacza liczby wyników
+                    boolean lastPage = flights.size() < pageable.getPageSize() && (pageable.getOffset() == 0 || !flights.isEmpty());
+                    if (lastPage) {
+                        return Mono.just(new PageImpl<>(flights, pageable, pageable.getOffset() + flights.size()));
+                    }
+                    return count(where).map(total -> new PageImpl<>(flights, pageable, total));
+                });
+    }
+
+    private Mono<Long> count(FlightSqlFilter where) {
+        return databaseClient.sql("SELECT COUNT(*) AS total FROM flights f " + where.where())
+                .bindValues(where.parameters())
+                .map(row -> row.get("total", Long.class))
+                .one();
+    }
+
+    // Tylko właściwości z listy - nazwa kolumny trafia do SQL; remis zawsze rozstrzyga kolejność odlotów
+    private static String orderBy(Sort sort) {
+        List<String> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            String column = SORT_COLUMNS.get(order.getProperty());
+            if (column == null) {
+                throw new IllegalArgumentException("Unsupported sort property: " + order.getProperty());
+            }
+            orders.add(column + (order.isDescending() ? " DESC" : " ASC"));
+        }
+        orders.add("f.departure_time ASC");
+        orders.add("f.id ASC");
+        return " ORDER BY " + String.join(", ", orders);
+    }
+
+    private static Flight toFlight(Readable row) {
+        Long gateId = row.get("gate_id", Long.class);
+        Gate gate = null;
+        if (gateId != null) {
+            gate = new Gate(gateId, row.get("gate_number", String.class));
+            gate.setVersion(row.get("gate_version", Long.class));
+        }
+        String status = row.get("status", String.class);
+        String zone = row.get("zone", String.class);
+        return Flight.builder()
+                .id(row.get("id", Long.class))
+                .flightNumber(row.get("flight_number", String.class))
+                .destination(row.get("destination", String.class))
+                .status(status != null ? FlightStatus.valueOf(status) : null)
+                .departureTime(row.get("departure_time", LocalDateTime.class))
+                .zone(zone != null ? FlightZone.valueOf(zone) : null)
+                .gate(gate)
+                .temperature(row.get("temperature", Double.class))
+                .version(row.get("version", Long.class))
+                .build();
+    }
+}
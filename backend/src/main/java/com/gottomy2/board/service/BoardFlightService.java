@@ -0,0 +1,59 @@
+package com.gottomy2.board.service;
+
+import com.gottomy2.board.repository.BoardFlightRepository;
+import com.gottomy2.departures.dto.WeatherKey;
+import com.gottomy2.departures.model.Flight;
+import com.gottomy2.specification.FlightFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Service
+public class BoardFlightService {
+
+    private final BoardFlightRepository flightRepository;
+    private final BoardWeatherClient weatherClient;
+    private final boolean weatherPrefetchEnabled;
+    private final Duration budget;
+
+    public BoardFlightService(BoardFlightRepository flightRepository,
+                              BoardWeatherClient weatherClient,
+                              @Value("${weather.prefetch.enabled:true}") boolean weatherPrefetchEnabled,
+                              @Value("${weather.enrichment.budget-ms:800}") long budgetMs) {
+        this.flightRepository = flightRepository;
+        this.weatherClient = weatherClient;
+        this.weatherPrefetchEnabled = weatherPrefetchEnabled;
+        this.budget = Duration.ofMillis(budgetMs);
+    }
+
+    public Mono<Page<Flight>> getFlightsFiltered(FlightFilter filter, Pageable pageable) {
+        Mono<Page<Flight>> flights = flightRepository.findAll(filter, pageable);
+        // Przy włączonym prefetchu (w głównej aplikacji) temperatury są już zapisane w bazie
+        return weatherPrefetchEnabled ? flights : flights.flatMap(this::enrich);
+    }
+
+    /**
+     * Temperatury dla strony: każdy (miasto, data) raz, wszystkie równolegle, w budżecie czasowym strony.
+     * Wartości spóźnione trafiają do cache klienta i zostaną użyte przy kolejnym odczycie.
+     */
+    private Mono<Page<Flight>> enrich(Page<Flight> page) {
+        Map<WeatherKey, List<Flight>> flightsByKey = page.getContent().stream()
+                .filter(flight -> flight.getDestination() != null && flight.getDepartureTime() != null)
+                .collect(Collectors.groupingBy(WeatherKey::of, LinkedHashMap::new, Collectors.toList()));
+
+        return Flux.fromIterable(flightsByKey.keySet())
+                .flatMap(key -> weatherClient.getTemperature(key)
+                        .doOnNext(temperature -> flightsByKey.get(key).forEach(flight -> flight.setTemperature(temperature))))
+                .take(budget)
+                .then(Mono.just(page));
+    }
+}
@@ -0,0 +1,117 @@
+package com.gottomy2.board.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.gottomy2.departures.dto.WeatherKey;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Nieblokujący odpowiednik {@code WeatherService} + {@code WeatherCache}. W cache trzymany jest
+ * zapamiętany {@link Mono} - współbieżne odczyty tego samego klucza dzielą jedno zapytanie, wynik żyje
+ * {@code ttl}, a brak odpowiedzi {@code negative-ttl}, po czym kolejny odczyt pobiera go ponownie.
+ */
+@Slf4j
+@Component
+public class BoardWeatherClient {
+
+    private static final DateTimeFormatter FORECAST_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final WebClient webClient;
+    private final String apiKey;
+    private final boolean forecastMode;
+    private final Duration ttl;
+    private final Duration negativeTtl;
+    private final Cache<WeatherKey, Mono<Double>> temperatures;
+    private final Cache<String, Mono<Map<LocalDate, Double>>> forecasts;
+
+    public BoardWeatherClient(@Qualifier("weatherWebClient") WebClient webClient,
+                              @Value("${weather.api.key}") String apiKey,
+                              @Value("${weather.api.mode:current}") String mode,
+                              @Value("${weather.cache.max-size:10000}") long maxSize,
+                              @Value("${weather.cache.ttl:30m}") Duration ttl,
+                              @Value("${weather.cache.negative-ttl:5m}") Duration negativeTtl) {
+        this.webClient = webClient;
+        this.apiKey = apiKey;
+        this.forecastMode = "forecast".equalsIgnoreCase(mode);
+        this.ttl = ttl;
+        this.negativeTtl = negativeTtl;
+        this.temperatures = Caffeine.newBuilder().maximumSize(maxSize).expireAfterAccess(ttl).build();
+        this.forecasts = Caffeine.newBuilder().maximumSize(maxSize).expireAfterAccess(ttl).build();
+    }
+
+    /**
+     * Temperatura dla miasta i dnia albo pusty {@link Mono}, gdy dostawca nie odpowiedział poprawnie.
+     */
+    public Mono<Double> getTemperature(WeatherKey key) {
+        if (forecastMode) {
+            return forecasts.get(key.city(), city -> cached(fetchForecast(city)))
+                    .mapNotNull(forecast -> forecast.get(key.date()));
+        }
+        return temperatures.get(key, k -> cached(fetchCurrent(k.city())));
+    }
+
+    private <T> Mono<T> cached(Mono<T> source) {
+        return source.cache(value -> ttl, error -> negativeTtl, () -> negativeTtl);
+    }
+
+    private Mono<Double> fetchCurrent(String city) {
+        return call("/weather", city)
+                .mapNotNull(response -> {
+                    JsonNode temperature = response.path("main").path("temp");
+                    return temperature.isNumber() ? temperature.doubleValue() : null;
+                });
+    }
+
+    /**
+     * Jedna temperatura na dzień - pomiar najbliższy południa, jak w {@code WeatherService.getForecast}.
+     */
+    private Mono<Map<LocalDate, Double>> fetchForecast(String city) {
+        return call("/forecast", city)
+                .map(response -> {
+                    Map<LocalDate, LocalDateTime> closestToNoon = new HashMap<>();
+                    Map<LocalDate, Double> forecast = new HashMap<>();
+                    for (JsonNode entry : response.path("list")) {
+                        LocalDateTime time = LocalDateTime.parse(entry.path("dt_txt").asText(), FORECAST_TIME_FORMAT);
+                        LocalDate date = time.toLocalDate();
+                        LocalDateTime current = closestToNoon.get(date);
+                        if (current == null || distanceFromNoon(time) < distanceFromNoon(current)) {
+                            closestToNoon.put(date, time);
+                            forecast.put(date, entry.path("main").path("temp").doubleValue());
+                        }
+                    }
+                    return forecast;
+                })
+                .onErrorResume(RuntimeException.class, e -> {
+                    log.warn("Niepoprawna prognoza dla {}: {}", city, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<JsonNode> call(String path, String city) {
+        return webClient.get()
+                .uri(path + "?q={city}&units=metric&appid={key}", city, apiKey)
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .onErrorResume(e -> {
+                    log.warn("Błąd podczas pobierania pogody dla {}: {}", city, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private static int distanceFromNoon(LocalDateTime time) {
+        return Math.abs(time.getHour() - 12);
+    }
+}
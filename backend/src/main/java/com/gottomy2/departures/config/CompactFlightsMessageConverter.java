@@ -0,0 +1,80 @@
+package com.gottomy2.departures.config;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gottomy2.departures.dto.CompactFlights;
+import com.gottomy2.departures.dto.FlightField;
+import com.gottomy2.departures.dto.FlightView;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Zapisuje {@link CompactFlights} bezpośrednio generatorem strumieniowym Jacksona - bez drzewa modelu
+ * i bez refleksji po wierszach.
+ */
+public class CompactFlightsMessageConverter extends AbstractHttpMessageConverter<CompactFlights> {
+
+    private final ObjectMapper objectMapper;
+
+    public CompactFlightsMessageConverter(ObjectMapper objectMapper) {
+        super(MediaType.APPLICATION_JSON);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return CompactFlights.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected CompactFlights readInternal(Class<? extends CompactFlights> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("CompactFlights is write-only", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(CompactFlights compact, HttpOutputMessage outputMessage) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(outputMessage.getBody(), JsonEncoding.UTF8);
+        generator.writeStartArray();
+        for (FlightView flight : compact.flights()) {
+            generator.writeStartObject();
+            for (FlightField field : compact.fields()) {
+                generator.writeFieldName(field.jsonName());
+                writeValue(generator, field.valueOf(flight));
+            }
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.flush();
+    }
+
+    private static void writeValue(JsonGenerator generator, Object value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else if (value instanceof String text) {
+            generator.writeString(text);
+        } else if (value instanceof Long number) {
+            generator.writeNumber(number);
+        } else if (value instanceof Double number) {
+            generator.writeNumber(number);
+        } else if (value instanceof Enum<?> constant) {
+            generator.writeString(constant.name());
+        } else if (value instanceof LocalDateTime time) {
+            generator.writeString(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(time));
+        } else {
+            generator.writeString(value.toString());
+        }
+    }
+}
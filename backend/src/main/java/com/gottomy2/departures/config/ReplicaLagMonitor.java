@@ -0,0 +1,77 @@
+package com.gottomy2.departures.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Okresowo mierzy opóźnienie repliki. Replika niedostępna albo spóźniona ponad {@code maxLag}
+ * nie dostaje odczytów, dopóki kolejny pomiar nie wypadnie poprawnie.
+ */
+@Slf4j
+public class ReplicaLagMonitor implements HealthIndicator {
+
+    private final JdbcTemplate replica;
+    private final String lagQuery;
+    private final Duration maxLag;
+
+    private volatile boolean usable;
+    private volatile double lagSeconds = Double.NaN;
+    private volatile String lastError;
+
+    public ReplicaLagMonitor(DataSource replica, String lagQuery, Duration maxLag, MeterRegistry meterRegistry) {
+        this.replica = new JdbcTemplate(replica);
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag;
+        Gauge.builder("datasource.replica.lag", this, monitor -> monitor.lagSeconds)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("datasource.replica.usable", this, monitor -> monitor.usable ? 1 : 0)
+                .register(meterRegistry);
+    }
+
+    public boolean isUsable() {
+        return usable;
+    }
+
+    @Scheduled(fixedDelayString = "${spring.datasource.replica.check-interval:5s}")
+    public void check() {
+        boolean wasUsable = usable;
+        try {
+            Double lag = replica.queryForObject(lagQuery, Double.class);
+            lagSeconds = lag != null ? lag : 0;
+            lastError = null;
+            usable = lagSeconds * 1000 <= maxLag.toMillis();
+        } catch (RuntimeException e) {
+            lagSeconds = Double.NaN;
+            lastError = e.getMessage();
+            usable = false;
+        }
+        if (wasUsable != usable) {
+            log.warn("Replika {}: opóźnienie {} s, błąd: {}", usable ? "przywrócona do odczytów" : "wyłączona z odczytów",
+                    lagSeconds, lastError);
+        }
+    }
+
+    // Odczyty wracają na primary, więc niedostępna replika nie oznacza niedostępnej aplikacji
+    @Override
+    public Health health() {
+        Health.Builder builder = Health.up()
+                .withDetail("readsFrom", usable ? "replica" : "primary")
+                .withDetail("maxLag", maxLag.toString());
+        if (!Double.isNaN(lagSeconds)) {
+            builder.withDetail("lagSeconds", lagSeconds);
+        }
+        if (lastError != null) {
+            builder.withDetail("error", lastError);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,50 @@
+package com.gottomy2.departures.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Transakcje {@code readOnly} dostają połączenie z repliki, a gdy ta jest niedostępna lub spóźniona - z primary.
+ * Wszystko inne, także zapytania poza transakcją, idzie na primary. Działa tylko za
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, bo flaga readOnly
+ * jest ustawiana dopiero po rozpoczęciu transakcji.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Target {
+        PRIMARY,
+        REPLICA
+    }
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final Counter replicaReads;
+    private final Counter primaryReads;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor,
+                                    MeterRegistry meterRegistry) {
+        this.lagMonitor = lagMonitor;
+        this.replicaReads = meterRegistry.counter("datasource.routing.reads", "target", "replica");
+        this.primaryReads = meterRegistry.counter("datasource.routing.reads", "target", "primary");
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Target.PRIMARY;
+        }
+        if (lagMonitor.isUsable()) {
+            replicaReads.increment();
+            return Target.REPLICA;
+        }
+        primaryReads.increment();
+        return Target.PRIMARY;
+    }
+}
@@ -0,0 +1,88 @@
+package com.gottomy2.departures.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Model odczytu, indeks gate'ów i licznik ETagów żyją w pamięci i aktualizują je tylko lokalne zapisy, więc druga
+ * instancja na tej samej bazie serwowałaby nieaktualną tablicę i fałszywe 304. Przy starcie bierze sesyjną blokadę
+ * doradczą i trzyma jej połączenie do zamknięcia kontekstu; kolejna instancja czeka {@code wait}, a potem nie wstaje.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "departures.single-instance.enabled", havingValue = "true")
+public class SingleInstanceLock implements HealthIndicator {
+
+    // Klucz pg_try_advisory_lock, inny niż blokada FlightPartitionJob
+    private static final long LOCK_KEY = 0x6465706172747572L;
+    private static final Duration POLL_INTERVAL = Duration.ofSeconds(1);
+
+    private final DataSource dataSource;
+    private final Duration wait;
+
+    private Connection connection;
+
+    public SingleInstanceLock(DataSource dataSource,
+                              @Value("${departures.single-instance.wait:60s}") Duration wait) {
+        this.dataSource = dataSource;
+        this.wait = wait;
+    }
+
+    @PostConstruct
+    public void acquire() throws SQLException, InterruptedException {
+        connection = dataSource.getConnection();
+        long deadline = System.nanoTime() + wait.toNanos();
+        while (!tryLock()) {
+            if (System.nanoTime() >= deadline) {
+                connection.close();
+                throw new IllegalStateException("Another instance is already running against this database "
+                        + "(advisory lock " + LOCK_KEY + " held for " + wait + ")");
+            }
+            log.info("Inna instancja trzyma blokadę {}, czekam", LOCK_KEY);
+            Thread.sleep(POLL_INTERVAL.toMillis());
+        }
+        log.info("Blokada pojedynczej instancji {} pobrana", LOCK_KEY);
+    }
+
+    // Zamknięcie połączenia zwalnia blokadę sesyjną, więc następna instancja może wystartować
+    @PreDestroy
+    public void release() throws SQLException {
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    // Zerwane połączenie to utracona blokada - ruch powinien przejąć nowo uruchomiona instancja
+    @Override
+    public Health health() {
+        try {
+            return connection.isValid(1)
+                    ? Health.up().withDetail("lockKey", LOCK_KEY).build()
+                    : Health.down().withDetail("lockKey", LOCK_KEY).withDetail("error", "lock connection lost").build();
+        } catch (SQLException e) {
+            return Health.down(e).withDetail("lockKey", LOCK_KEY).build();
+        }
+    }
+
+    private boolean tryLock() throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+            statement.setLong(1, LOCK_KEY);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() && result.getBoolean(1);
+            }
+        }
+    }
+}
@@ -1,17 +1,35 @@
 package com.gottomy2.departures.controller;
+import com.gottomy2.departures.dto.BulkStatusUpdate;
+import com.gottomy2.departures.dto.CompactFlights;
+import com.gottomy2.departures.dto.CursorPage;
+import com.gottomy2.departures.dto.FlightField;
+import com.gottomy2.departures.dto.FlightView;
+import com.gottomy2.departures.dto.ImportReport;
 import com.gottomy2.departures.model.Flight;
-import com.gottomy2.departures.model.FlightStatus;
-import com.gottomy2.departures.model.FlightZone;
+import com.gottomy2.departures.service.ChangeSequence;
+import com.gottomy2.departures.service.FlightImportService;
 import com.gottomy2.departures.service.FlightService;
+import com.gottomy2.departures.service.FlightStreamService;
+import com.gottomy2.specification.FlightFilter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.data.web.PagedResourcesAssembler;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.PagedModel;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/flights")
@@ -19,25 +37,113 @@ import org.springframework.web.bind.annotation.*;
 @CrossOrigin(origins = "*")
 public class FlightController {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
     private final FlightService flightService;
+    private final FlightStreamService flightStreamService;
+    private final ChangeSequence changeSequence;
+    private final FlightImportService flightImportService;
 
     @GetMapping
     public ResponseEntity<PagedModel<EntityModel<Flight>>> getFlights(
-            @RequestParam(required = false) String flightNumber,
-            @RequestParam(required = false) FlightStatus status,
-            @RequestParam(required = false) FlightZone zone,
+            FlightFilter filter,
             Pageable pageable,
-            PagedResourcesAssembler<Flight> pagedAssembler) {
+            PagedResourcesAssembler<Flight> pagedAssembler,
+            WebRequest request) {
+
+        // ETag odczytany przed zapytaniem - zmiana w trakcie najwyżej wymusi kolejną pełną odpowiedź
+        String etag = changeSequence.etag("flights", filter.upcoming());
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
 
-        Page<Flight> flights = flightService.getFlightsFiltered(flightNumber, status, zone, pageable);
+        Page<Flight> flights = flightService.getFlightsFiltered(filter, pageable);
 
         PagedModel<EntityModel<Flight>> model = pagedAssembler.toModel(flights, flight -> EntityModel.of(flight));
-        return ResponseEntity.ok(model);
+        return ResponseEntity.ok().eTag(etag).body(model);
+    }
+
+    @GetMapping(params = "view=flat")
+    public ResponseEntity<PagedModel<EntityModel<FlightView>>> getFlightViews(
+            FlightFilter filter,
+            Pageable pageable,
+            PagedResourcesAssembler<FlightView> pagedAssembler,
+            WebRequest request) {
+
+        String etag = changeSequence.etag("flights-flat", filter.upcoming());
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        Page<FlightView> flights = flightService.getFlightViews(filter, pageable);
+
+        PagedModel<EntityModel<FlightView>> model = pagedAssembler.toModel(flights, flight -> EntityModel.of(flight));
+        return ResponseEntity.ok().eTag(etag).body(model);
+    }
+
+    @GetMapping(params = "view=compact")
+    public ResponseEntity<CompactFlights> getCompactFlights(
+            FlightFilter filter,
+            Pageable pageable,
+            @RequestParam(required = false) String fields,
+            WebRequest request) {
+
+        List<FlightField> selected = FlightField.parse(fields);
+        String etag = changeSequence.etag("flights-compact", filter.upcoming());
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        Page<FlightView> flights = flightService.getFlightViews(filter, pageable);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .header("X-Total-Count", String.valueOf(flights.getTotalElements()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new CompactFlights(flights.getContent(), selected));
+    }
+
+    @GetMapping("/history")
+    public ResponseEntity<PagedModel<EntityModel<FlightView>>> getFlightHistory(
+            FlightFilter filter,
+            @PageableDefault(sort = "departureTime", direction = Sort.Direction.DESC) Pageable pageable,
+            PagedResourcesAssembler<FlightView> pagedAssembler,
+            WebRequest request) {
+
+        // Archiwum zmienia się tylko przy przeniesieniu partycji, które też przesuwa ChangeSequence
+        String etag = changeSequence.etag("flights-history");
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        Page<FlightView> flights = flightService.getFlightHistory(filter, pageable);
+
+        PagedModel<EntityModel<FlightView>> model = pagedAssembler.toModel(flights, flight -> EntityModel.of(flight));
+        return ResponseEntity.ok().eTag(etag).body(model);
+    }
+
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPage<Flight>> getFlightsByCursor(
+            FlightFilter filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+
+        int pageSize = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        return ResponseEntity.ok(flightService.getFlightsByCursor(filter, cursor, pageSize));
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamFlights(FlightFilter filter, Pageable pageable) {
+        return flightStreamService.subscribe(filter, pageable);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Flight> getFlightById(@PathVariable Long id) {
-        return ResponseEntity.ok(flightService.getFlightById(id));
+    public ResponseEntity<Flight> getFlightById(@PathVariable Long id, WebRequest request) {
+        String etag = flightEtag(id, flightService.getFlightVersion(id));
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        Flight flight = flightService.getFlightById(id);
+        return ResponseEntity.ok().eTag(flightEtag(id, flight.getVersion())).body(flight);
     }
 
     @PostMapping
@@ -46,6 +152,21 @@ public class FlightController {
         return ResponseEntity.status(HttpStatus.CREATED).body(savedFlight);
     }
 
+    @PostMapping(path = "/import", consumes = "text/csv")
+    public ResponseEntity<ImportReport> importFlightsCsv(InputStream body) throws IOException {
+        return ResponseEntity.ok(flightImportService.importFlights(body, FlightImportService.Format.CSV));
+    }
+
+    @PostMapping(path = "/import", consumes = "application/x-ndjson")
+    public ResponseEntity<ImportReport> importFlightsNdjson(InputStream body) throws IOException {
+        return ResponseEntity.ok(flightImportService.importFlights(body, FlightImportService.Format.NDJSON));
+    }
+
+    @PatchMapping("/status")
+    public ResponseEntity<Map<String, Integer>> updateStatuses(@RequestBody BulkStatusUpdate request) {
+        return ResponseEntity.ok(Map.of("updated", flightService.updateStatuses(request)));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<Flight> updateFlight(@PathVariable Long id, @RequestBody Flight updatedFlight) {
         Flight savedFlight = flightService.updateFlight(id, updatedFlight);
@@ -57,5 +178,8 @@ public class FlightController {
         flightService.deleteFlight(id);
         return ResponseEntity.noContent().build();
     }
-}
 
+    private static String flightEtag(Long id, Long version) {
+        return "\"flight-" + id + "-" + version + "\"";
+    }
+}
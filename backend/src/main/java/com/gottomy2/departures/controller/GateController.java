@@ -1,16 +1,25 @@
 package com.gottomy2.departures.controller;
 
-import com.gottomy2.departures.model.Flight;
+import com.gottomy2.departures.dto.GateConflict;
+import com.gottomy2.departures.dto.GateOccupancy;
 import com.gottomy2.departures.model.Gate;
+import com.gottomy2.departures.service.ChangeSequence;
+import com.gottomy2.departures.service.GateSchedule;
 import com.gottomy2.departures.service.GateService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PagedResourcesAssembler;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.PagedModel;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/gates")
@@ -18,21 +27,60 @@ import org.springframework.web.bind.annotation.*;
 public class GateController {
 
     private final GateService gateService;
+    private final ChangeSequence changeSequence;
+    private final GateSchedule gateSchedule;
 
     @GetMapping
     public ResponseEntity<PagedModel<EntityModel<Gate>>> getAllGates(
             Pageable pageable,
-            PagedResourcesAssembler<Gate> pagedAssembler) {
+            PagedResourcesAssembler<Gate> pagedAssembler,
+            WebRequest request) {
+
+        String etag = changeSequence.etag("gates");
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
 
         Page<Gate> gates = gateService.getAllGates(pageable);
         PagedModel<EntityModel<Gate>> model = pagedAssembler.toModel(gates, gate -> EntityModel.of(gate));
 
-        return ResponseEntity.ok(model);
+        return ResponseEntity.ok().eTag(etag).body(model);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Gate> getGateById(@PathVariable Long id) {
-        return ResponseEntity.ok(gateService.getGateById(id));
+    public ResponseEntity<Gate> getGateById(@PathVariable Long id, WebRequest request) {
+        String etag = gateEtag(id, gateService.getGateVersion(id));
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        Gate gate = gateService.getGateById(id);
+        return ResponseEntity.ok().eTag(gateEtag(id, gate.getVersion())).body(gate);
+    }
+
+    @GetMapping("/{id}/schedule")
+    public ResponseEntity<List<GateOccupancy>> getGateSchedule(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        gateService.getGateById(id);
+        return ResponseEntity.ok(gateSchedule.schedule(id, from, to));
+    }
+
+    @GetMapping("/conflicts")
+    public ResponseEntity<List<GateConflict>> getConflicts(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(gateSchedule.conflicts(from, to));
+    }
+
+    @GetMapping("/free")
+    public ResponseEntity<List<Gate>> getFreeGates(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        List<Gate> free = gateService.getAllGates(Pageable.unpaged()).stream()
+                .filter(gate -> gateSchedule.isFree(gate.getId(), from, to))
+                .toList();
+        return ResponseEntity.ok(free);
     }
 
     @GetMapping("/search")
@@ -57,5 +105,8 @@ public class GateController {
         gateService.deleteGate(id);
         return ResponseEntity.noContent().build();
     }
-}
 
+    private static String gateEtag(Long id, Long version) {
+        return "\"gate-" + id + "-" + version + "\"";
+    }
+}
@@ -0,0 +1,26 @@
+package com.gottomy2.departures.dto;
+
+import com.gottomy2.departures.model.FlightStatus;
+import com.gottomy2.specification.FlightFilter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Masowa zmiana statusu (i opcjonalnie godziny odlotu). Loty wybierane są po {@code ids}, po filtrze
+ * i oknie odlotów [{@code departureFrom}, {@code departureTo}) albo po obu naraz.
+ */
+public record BulkStatusUpdate(List<Long> ids,
+                               FlightFilter filter,
+                               LocalDateTime departureFrom,
+                               LocalDateTime departureTo,
+                               FlightStatus status,
+                               LocalDateTime departureTime) {
+
+    // Zabezpieczenie przed przypadkową zmianą wszystkich lotów
+    public boolean hasSelection() {
+        boolean byFilter = filter != null && ((filter.flightNumber() != null && !filter.flightNumber().isEmpty())
+                || filter.status() != null || filter.zone() != null || filter.hasDepartureWindow());
+        return (ids != null && !ids.isEmpty()) || byFilter || departureFrom != null || departureTo != null;
+    }
+}
@@ -0,0 +1,9 @@
+package com.gottomy2.departures.dto;
+
+import java.util.List;
+
+/**
+ * Lista lotów zapisywana jako zwykła tablica JSON z wybranymi polami, bez linków HAL.
+ */
+public record CompactFlights(List<FlightView> flights, List<FlightField> fields) {
+}
@@ -0,0 +1,6 @@
+package com.gottomy2.departures.dto;
+
+import java.util.List;
+
+public record CursorPage<T>(List<T> content, String nextCursor, String previousCursor, int size) {
+}
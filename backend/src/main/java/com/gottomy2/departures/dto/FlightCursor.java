@@ -0,0 +1,36 @@
+package com.gottomy2.departures.dto;
+
+import com.gottomy2.departures.model.Flight;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Pozycja w liście lotów uporządkowanej po (departure_time, id). Na zewnątrz przekazywana
+ * jako nieprzezroczysty token.
+ */
+public record FlightCursor(LocalDateTime departureTime, Long id, boolean backward) {
+
+    public static FlightCursor after(Flight flight) {
+        return new FlightCursor(flight.getDepartureTime(), flight.getId(), false);
+    }
+
+    public static FlightCursor before(Flight flight) {
+        return new FlightCursor(flight.getDepartureTime(), flight.getId(), true);
+    }
+
+    public static FlightCursor decode(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|");
+            return new FlightCursor(LocalDateTime.parse(parts[1]), Long.parseLong(parts[2]), "b".equals(parts[0]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+    }
+
+    public String encode() {
+        String raw = (backward ? "b" : "f") + "|" + departureTime + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,60 @@
+package com.gottomy2.departures.dto;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Pola dostępne w zwartej reprezentacji listy lotów ({@code ?view=compact&fields=...}).
+ */
+public enum FlightField {
+    ID("id", FlightView::id),
+    FLIGHT_NUMBER("flightNumber", FlightView::flightNumber),
+    DESTINATION("destination", FlightView::destination),
+    STATUS("status", FlightView::status),
+    DEPARTURE_TIME("departureTime", FlightView::departureTime),
+    ZONE("zone", FlightView::zone),
+    GATE("gate", FlightView::gateNumber),
+    TEMPERATURE("temperature", FlightView::temperature),
+    VERSION("version", FlightView::version);
+
+    private static final List<FlightField> DEFAULT = List.of(ID, FLIGHT_NUMBER, DESTINATION, STATUS, DEPARTURE_TIME,
+            ZONE, GATE, TEMPERATURE);
+
+    private final String jsonName;
+    private final Function<FlightView, Object> accessor;
+
+    FlightField(String jsonName, Function<FlightView, Object> accessor) {
+        this.jsonName = jsonName;
+        this.accessor = accessor;
+    }
+
+    public String jsonName() {
+        return jsonName;
+    }
+
+    public Object valueOf(FlightView flight) {
+        return accessor.apply(flight);
+    }
+
+    // Lista po przecinku, np. "flightNumber,status,gate"; brak parametru oznacza pola domyślne
+    public static List<FlightField> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return DEFAULT;
+        }
+        return Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .distinct()
+                .map(FlightField::byJsonName)
+                .toList();
+    }
+
+    private static FlightField byJsonName(String name) {
+        return Arrays.stream(values())
+                .filter(field -> field.jsonName.toLowerCase(Locale.ROOT).equals(name.toLowerCase(Locale.ROOT)))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown field: " + name));
+    }
+}
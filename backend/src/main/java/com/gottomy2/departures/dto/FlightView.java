@@ -0,0 +1,35 @@
+package com.gottomy2.departures.dto;
+
+import com.gottomy2.departures.model.ArchivedFlight;
+import com.gottomy2.departures.model.Flight;
+import com.gottomy2.departures.model.FlightStatus;
+import com.gottomy2.departures.model.FlightZone;
+
+import java.time.LocalDateTime;
+
+/**
+ * Płaski widok lotu do odczytu listy: pola lotu i numer gate'a, bez zarządzanej encji.
+ */
+public record FlightView(Long id,
+                         String flightNumber,
+                         String destination,
+                         FlightStatus status,
+                         LocalDateTime departureTime,
+                         FlightZone zone,
+                         String gateNumber,
+                         Double temperature,
+                         Long version) {
+
+    public static FlightView of(Flight flight) {
+        return new FlightView(flight.getId(), flight.getFlightNumber(), flight.getDestination(), flight.getStatus(),
+                flight.getDepartureTime(), flight.getZone(),
+                flight.getGate() != null ? flight.getGate().getGateNumber() : null,
+                flight.getTemperature(), flight.getVersion());
+    }
+
+    public static FlightView of(ArchivedFlight flight) {
+        return new FlightView(flight.getId(), flight.getFlightNumber(), flight.getDestination(), flight.getStatus(),
+                flight.getDepartureTime(), flight.getZone(), flight.getGateNumber(),
+                flight.getTemperature(), flight.getVersion());
+    }
+}
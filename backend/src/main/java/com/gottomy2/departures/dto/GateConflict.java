@@ -0,0 +1,7 @@
+package com.gottomy2.departures.dto;
+
+/**
+ * Dwa loty, których okna zajętości tego samego gate'a się nakładają.
+ */
+public record GateConflict(Long gateId, GateOccupancy first, GateOccupancy second) {
+}
@@ -0,0 +1,6 @@
+package com.gottomy2.departures.dto;
+
+import java.time.LocalDateTime;
+
+public record GateOccupancy(Long flightId, Long gateId, LocalDateTime occupiedFrom, LocalDateTime occupiedTo) {
+}
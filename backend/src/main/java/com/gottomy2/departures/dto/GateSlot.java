@@ -0,0 +1,21 @@
+package com.gottomy2.departures.dto;
+
+import com.gottomy2.departures.model.Flight;
+import com.gottomy2.departures.model.FlightStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Zajętość gate'a przez lot: okno [departureTime - turnaround, departureTime).
+ */
+public record GateSlot(Long flightId, Long gateId, LocalDateTime departureTime) {
+
+    // Null, gdy lot nie zajmuje gate'a (brak gate'a lub godziny odlotu, lot odwołany)
+    public static GateSlot of(Flight flight) {
+        if (flight.getGate() == null || flight.getGate().getId() == null || flight.getDepartureTime() == null
+                || flight.getStatus() == FlightStatus.ODWOŁANY) {
+            return null;
+        }
+        return new GateSlot(flight.getId(), flight.getGate().getId(), flight.getDepartureTime());
+    }
+}
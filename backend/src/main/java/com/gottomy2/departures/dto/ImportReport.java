@@ -0,0 +1,13 @@
+package com.gottomy2.departures.dto;
+
+import java.util.List;
+
+/**
+ * Wynik importu lotów. {@code errors} zawiera co najwyżej kilkadziesiąt pierwszych błędów,
+ * {@code failed} - liczbę wszystkich odrzuconych wierszy.
+ */
+public record ImportReport(int imported, int failed, List<RowError> errors) {
+
+    public record RowError(long line, String message) {
+    }
+}
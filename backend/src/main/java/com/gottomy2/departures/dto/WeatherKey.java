@@ -0,0 +1,19 @@
+package com.gottomy2.departures.dto;
+
+import com.gottomy2.departures.model.Flight;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+public record WeatherKey(String city, LocalDate date) {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    public static WeatherKey of(Flight flight) {
+        return new WeatherKey(flight.getDestination(), flight.getDepartureTime().toLocalDate());
+    }
+
+    public String formattedDate() {
+        return date.format(DATE_FORMAT);
+    }
+}
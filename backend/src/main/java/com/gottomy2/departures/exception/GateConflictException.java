@@ -0,0 +1,8 @@
+package com.gottomy2.departures.exception;
+
+public class GateConflictException extends RuntimeException {
+
+    public GateConflictException(String message) {
+        super(message);
+    }
+}
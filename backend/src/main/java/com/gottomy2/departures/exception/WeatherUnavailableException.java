@@ -0,0 +1,16 @@
+package com.gottomy2.departures.exception;
+
+/**
+ * Dostawca pogody nie odpowiedział: wywołanie wstrzymane (obwód otwarty, bulkhead pełny) albo nieudane.
+ * W odróżnieniu od odpowiedzi bez danych taki wynik nie trafia do negatywnego cache.
+ */
+public class WeatherUnavailableException extends RuntimeException {
+
+    public WeatherUnavailableException(String message) {
+        super(message);
+    }
+
+    public WeatherUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
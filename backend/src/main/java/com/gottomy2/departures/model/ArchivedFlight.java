@@ -0,0 +1,54 @@
+package com.gottomy2.departures.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Formula;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Odlot z archiwum: miesięczne partycje przeniesione z {@code flights} przez {@code FlightPartitionJob}.
+ * Tylko do odczytu. Archiwum nie ma klucza obcego do gates, więc numer gate'a jest dociągany podzapytaniem.
+ */
+@Entity
+@Table(name = "flights_archive")
+@Immutable
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class ArchivedFlight {
+
+    @Id
+    private Long id;
+
+    @Column(name = "flight_number", nullable = false)
+    private String flightNumber;
+
+    @Column(name = "destination", nullable = false)
+    private String destination;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private FlightStatus status;
+
+    @Column(name = "departure_time", nullable = false)
+    private LocalDateTime departureTime;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "zone", nullable = false)
+    private FlightZone zone;
+
+    @Column(name = "gate_id")
+    private Long gateId;
+
+    @Formula("(SELECT g.gate_number FROM gates g WHERE g.id = gate_id)")
+    private String gateNumber;
+
+    @Column(name = "temperature")
+    private Double temperature;
+
+    @Column(name = "version", nullable = false)
+    private Long version;
+}
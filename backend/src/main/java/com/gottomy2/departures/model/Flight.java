@@ -11,11 +11,13 @@ import java.time.LocalDateTime;
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class Flight {
 
+    // Sekwencja z pulą 50 id pozwala Hibernate łączyć INSERT-y w paczki JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "flights_seq")
+    @SequenceGenerator(name = "flights_seq", sequenceName = "flights_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "flight_number", nullable = false)
@@ -41,4 +43,15 @@ public class Flight {
 
     @Column(name = "temperature")
     private Double temperature;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    // Odłączona kopia do przechowywania poza kontekstem persystencji
+    public Flight snapshot() {
+        return toBuilder()
+                .gate(gate != null ? gate.snapshot() : null)
+                .build();
+    }
 }
\ No newline at end of file
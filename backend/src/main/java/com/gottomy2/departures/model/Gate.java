@@ -19,8 +19,21 @@ public class Gate {
     @Column(name = "gate_number", nullable = false, unique = true)
     private String gateNumber;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     public Gate(String gateNumber) {
         this.gateNumber = gateNumber;
     }
+
+    public Gate(Long id, String gateNumber) {
+        this.id = id;
+        this.gateNumber = gateNumber;
+    }
+
+    public Gate snapshot() {
+        return new Gate(id, gateNumber, version);
+    }
 }
 
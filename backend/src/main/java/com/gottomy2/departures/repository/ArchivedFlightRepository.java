@@ -0,0 +1,12 @@
+package com.gottomy2.departures.repository;
+
+import com.gottomy2.departures.model.ArchivedFlight;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.repository.ListPagingAndSortingRepository;
+import org.springframework.stereotype.Repository;
+
+// Bez metod zapisu - archiwum wypełnia FlightPartitionJob, przepinając partycje
+@Repository
+public interface ArchivedFlightRepository extends ListPagingAndSortingRepository<ArchivedFlight, Long>,
+        JpaSpecificationExecutor<ArchivedFlight> {
+}
@@ -0,0 +1,24 @@
+package com.gottomy2.departures.repository;
+
+import com.gottomy2.departures.dto.WeatherKey;
+import com.gottomy2.departures.model.Flight;
+import com.gottomy2.departures.model.FlightStatus;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Operacje zbiorcze na lotach wykonywane jednym poleceniem SQL zamiast encja po encji.
+ */
+public interface FlightBulkOperations {
+
+    List<Long> findIds(Specification<Flight> specification);
+
+    int updateStatus(Collection<Long> ids, FlightStatus status, LocalDateTime departureTime);
+
+    // Temperatura dla wszystkich odlotów do miasta w danym dniu; jeden batch JDBC zamiast UPDATE na parę (miasto, data)
+    int updateTemperatures(Map<WeatherKey, Double> temperatures);
+}
@@ -0,0 +1,100 @@
+package com.gottomy2.departures.repository;
+
+import com.gottomy2.departures.dto.WeatherKey;
+import com.gottomy2.departures.model.Flight;
+import com.gottomy2.departures.model.FlightStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+class FlightBulkOperationsImpl implements FlightBulkOperations {
+
+    // Zmienia tylko wiersze z inną temperaturą, żeby nie unieważniać ETagów bez potrzeby
+    private static final String UPDATE_TEMPERATURE = "UPDATE flights SET temperature = ?, version = version + 1 "
+            + "WHERE destination = ? AND departure_time >= ? AND departure_time < ? "
+            + "AND (temperature IS NULL OR temperature <> ?)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    FlightBulkOperationsImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<Long> findIds(Specification<Flight> specification) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+        Root<Flight> root = query.from(Flight.class);
+        query.select(root.get("id"))
+                .where(specification.toPredicate(root, query, criteriaBuilder))
+                .orderBy(criteriaBuilder.asc(root.get("id")));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    @Override
+    public int updateStatus(Collection<Long> ids, FlightStatus status, LocalDateTime departureTime) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Flight> update = criteriaBuilder.createCriteriaUpdate(Flight.class);
+        Root<Flight> root = update.from(Flight.class);
+
+        update.set(root.<FlightStatus>get("status"), status);
+        if (departureTime != null) {
+            update.set(root.<LocalDateTime>get("departureTime"), departureTime);
+        }
+        // Ręczne podbicie wersji - UPDATE z pominięciem encji nie robi tego sam, a od wersji zależą ETagi
+        update.set(root.<Long>get("version"), criteriaBuilder.sum(root.<Long>get("version"), 1L));
+        update.where(root.get("id").in(ids));
+
+        // Jak flushAutomatically/clearAutomatically, ale bez czyszczenia całego kontekstu transakcji wywołującego:
+        // najpierw zapis oczekujących zmian, potem odłączenie tylko zmienionych lotów, które są już nieaktualne
+        entityManager.flush();
+        int updated = entityManager.createQuery(update).executeUpdate();
+        detach(ids);
+        return updated;
+    }
+
+    @Override
+    public int updateTemperatures(Map<WeatherKey, Double> temperatures) {
+        if (temperatures.isEmpty()) {
+            return 0;
+        }
+        List<Object[]> rows = temperatures.entrySet().stream()
+                .map(entry -> new Object[]{entry.getValue(), entry.getKey().city(), entry.getKey().date().atStartOfDay(),
+                        entry.getKey().date().plusDays(1).atStartOfDay(), entry.getValue()})
+                .toList();
+        // JdbcTemplate działa na połączeniu transakcji JPA; oczekujące zmiany encji muszą trafić do bazy wcześniej
+        entityManager.flush();
+        // Sterownik może nie podać liczby wierszy (SUCCESS_NO_INFO) - liczymy wtedy zmianę, żeby nie zgubić unieważnienia ETagów
+        return Arrays.stream(jdbcTemplate.batchUpdate(UPDATE_TEMPERATURE, rows))
+                .map(count -> count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0))
+                .sum();
+    }
+
+    private void detach(Collection<Long> ids) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(Flight.class);
+        for (Long id : ids) {
+            Object managed = session.getPersistenceContextInternal().getEntity(session.generateEntityKey(id, persister));
+            if (managed != null) {
+                entityManager.detach(managed);
+            }
+        }
+    }
+}
@@ -1,15 +1,46 @@
 package com.gottomy2.departures.repository;
 
+import com.gottomy2.departures.dto.GateSlot;
+import com.gottomy2.departures.dto.WeatherKey;
 import com.gottomy2.departures.model.Flight;
 import com.gottomy2.departures.model.FlightStatus;
 import com.gottomy2.departures.model.FlightZone;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
-public interface FlightRepository extends JpaRepository<Flight, Long>, JpaSpecificationExecutor<Flight> {
+public interface FlightRepository extends JpaRepository<Flight, Long>, JpaSpecificationExecutor<Flight>,
+        FlightBulkOperations, FlightViewQueries {
+
+    // Gate pobierany w tym samym zapytaniu (LEFT JOIN) zamiast osobnym SELECT na wiersz
+    @Override
+    @EntityGraph(attributePaths = "gate")
+    Page<Flight> findAll(Specification<Flight> spec, Pageable pageable);
+
+    // Cała zawartość flights dla modelu odczytu; rozmiar ogranicza archiwizacja partycji
+    @EntityGraph(attributePaths = "gate")
+    @Query("select f from Flight f")
+    List<Flight> findAllWithGate();
+
+    @Query("select distinct new com.gottomy2.departures.dto.WeatherKey(f.destination, cast(f.departureTime as LocalDate)) " +
+            "from Flight f where f.departureTime >= :from and f.departureTime < :to")
+    List<WeatherKey> findWeatherKeysDepartingBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("select new com.gottomy2.departures.dto.GateSlot(f.id, f.gate.id, f.departureTime) from Flight f " +
+            "where f.gate is not null and f.departureTime >= :from and f.status <> :cancelled")
+    List<GateSlot> findGateSlots(@Param("cancelled") FlightStatus cancelled, @Param("from") LocalDateTime from);
 
+    @Query("select f.version from Flight f where f.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
 }
\ No newline at end of file
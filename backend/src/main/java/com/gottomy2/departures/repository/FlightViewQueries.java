@@ -0,0 +1,15 @@
+package com.gottomy2.departures.repository;
+
+import com.gottomy2.departures.dto.FlightView;
+import com.gottomy2.departures.model.Flight;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Odczyt listy lotów jako projekcji {@link FlightView} - jedno zapytanie z LEFT JOIN na gate, bez encji.
+ */
+public interface FlightViewQueries {
+
+    Page<FlightView> findViews(Specification<Flight> specification, Pageable pageable);
+}
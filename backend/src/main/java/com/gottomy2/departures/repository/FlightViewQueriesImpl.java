@@ -0,0 +1,69 @@
+package com.gottomy2.departures.repository;
+
+import com.gottomy2.departures.dto.FlightView;
+import com.gottomy2.departures.model.Flight;
+import com.gottomy2.departures.model.Gate;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+class FlightViewQueriesImpl implements FlightViewQueries {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<FlightView> findViews(Specification<Flight> specification, Pageable pageable) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<FlightView> query = criteriaBuilder.createQuery(FlightView.class);
+        Root<Flight> root = query.from(Flight.class);
+        Join<Flight, Gate> gate = root.join("gate", JoinType.LEFT);
+
+        query.select(criteriaBuilder.construct(FlightView.class,
+                        root.get("id"),
+                        root.get("flightNumber"),
+                        root.get("destination"),
+                        root.get("status"),
+                        root.get("departureTime"),
+                        root.get("zone"),
+                        gate.get("gateNumber"),
+                        root.get("temperature"),
+                        root.get("version")))
+                .where(specification.toPredicate(root, query, criteriaBuilder));
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, criteriaBuilder));
+        }
+
+        TypedQuery<FlightView> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        List<FlightView> content = typedQuery.getResultList();
+
+        // COUNT tylko gdy z samej strony nie da się ustalić liczby wyników
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(specification));
+    }
+
+    private long count(Specification<Flight> specification) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+        Root<Flight> root = query.from(Flight.class);
+        query.select(criteriaBuilder.count(root)).where(specification.toPredicate(root, query, criteriaBuilder));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
@@ -4,6 +4,8 @@ import com.gottomy2.departures.model.Gate;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -14,5 +16,8 @@ public interface GateRepository extends JpaRepository<Gate, Long> {
     Page<Gate> findAll(Pageable pageable);
 
     Optional<Gate> findByGateNumber(String gateNumber);
+
+    @Query("select g.version from Gate g where g.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
 }
 
@@ -1,40 +1,81 @@
 package com.gottomy2.departures.security;
 
-import com.gottomy2.departures.service.JpaUserDetailsService;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/auth")
-@RequiredArgsConstructor
 public class AuthController {
 
     private final AuthenticationManager authenticationManager;
     private final JwtUtil jwtUtil;
-    private final JpaUserDetailsService userDetailsService;
+    private final ExecutorService loginExecutor;
+    private final MeterRegistry meterRegistry;
+    private final Duration retryAfter;
+
+    public AuthController(AuthenticationManager authenticationManager,
+                          JwtUtil jwtUtil,
+                          @Qualifier("loginExecutor") ExecutorService loginExecutor,
+                          MeterRegistry meterRegistry,
+                          @Value("${security.login.retry-after:1s}") Duration retryAfter) {
+        this.authenticationManager = authenticationManager;
+        this.jwtUtil = jwtUtil;
+        this.loginExecutor = loginExecutor;
+        this.meterRegistry = meterRegistry;
+        this.retryAfter = retryAfter;
+    }
 
     @PostMapping("/login")
-    public ResponseEntity<Map<String, String>> login(@RequestBody Map<String, String> loginData) {
-        try {
-            authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(loginData.get("username"), loginData.get("password"))
-            );
+    public CompletableFuture<ResponseEntity<Map<String, String>>> login(@RequestBody Map<String, String> loginData) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        UsernamePasswordAuthenticationToken credentials =
+                new UsernamePasswordAuthenticationToken(loginData.get("username"), loginData.get("password"));
 
-            UserDetails user = userDetailsService.loadUserByUsername(loginData.get("username"));
-            String token = jwtUtil.generateToken(user);
+        CompletableFuture<Authentication> authentication;
+        try {
+            // Weryfikacja BCrypt poza wątkiem żądania; pełna kolejka oznacza 429 zamiast czekania
+            authentication = CompletableFuture.supplyAsync(() -> authenticationManager.authenticate(credentials), loginExecutor);
+        } catch (RejectedExecutionException e) {
+            stop(sample, "rejected");
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfter.toSeconds())))
+                    .body(Map.of("error", "Zbyt wiele prób logowania, spróbuj ponownie później")));
+        }
 
+        return authentication.handle((result, ex) -> {
+            if (ex != null) {
+                stop(sample, "failure");
+                Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                return ResponseEntity.status(401).body(Map.of("error", "Niepoprawne dane uwierzytelniające", "details", String.valueOf(cause.getMessage())));
+            }
+            // Principal pochodzi z DaoAuthenticationProvider - bez ponownego odczytu użytkownika
+            String token = jwtUtil.generateToken((UserDetails) result.getPrincipal());
+            stop(sample, "success");
             return ResponseEntity.ok(Map.of("token", token));
-        } catch (Exception e) {
-            return ResponseEntity.status(401).body(Map.of("error", "Niepoprawne dane uwierzytelniające", "details", e.getMessage()));
-        }
+        });
+    }
+
+    private void stop(Timer.Sample sample, String outcome) {
+        sample.stop(meterRegistry.timer("auth.login", "outcome", outcome));
     }
 }
@@ -1,12 +1,29 @@
 package com.gottomy2.departures.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.Optional;
 
 @Component
 public class JwtUtil {
@@ -16,6 +33,36 @@ public class JwtUtil {
 
     private final Key key = Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
 
+    // Zweryfikowane tokeny po skrócie SHA-256, ważne do wygaśnięcia tokenu
+    private final Cache<String, VerifiedToken> verifiedTokens;
+
+    private final MeterRegistry meterRegistry;
+
+    public JwtUtil(@Value("${security.token-cache.max-size:10000}") long maxCachedTokens, MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(maxCachedTokens)
+                .recordStats()
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+                        return Math.max(0, Duration.between(Instant.now(), token.expiresAt()).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, token, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt-tokens");
+    }
+
     public String generateToken(UserDetails userDetails) {
         return Jwts.builder()
                 .setSubject(userDetails.getUsername())
@@ -25,18 +72,52 @@ public class JwtUtil {
                 .compact();
     }
 
-    public String extractUsername(String token) {
-        return Jwts.parser().setSigningKey(key).build()
-                .parseClaimsJws(token).getBody().getSubject();
+    /**
+     * Weryfikuje podpis i ważność tokenu jednym parsowaniem; wynik trafia do cache do czasu wygaśnięcia tokenu.
+     * Pusty wynik oznacza token nieprawidłowy lub wygasły.
+     */
+    public Optional<VerifiedToken> verify(String token) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String hash = sha256(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(hash);
+        if (cached != null) {
+            Optional<VerifiedToken> result = cached.isExpired() ? Optional.empty() : Optional.of(cached);
+            return stop(sample, "cached", result);
+        }
+
+        Claims claims;
+        try {
+            claims = Jwts.parser().setSigningKey(key).build().parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            return stop(sample, "parsed", Optional.empty());
+        }
+        if (claims.getSubject() == null || claims.getExpiration() == null) {
+            return stop(sample, "parsed", Optional.empty());
+        }
+
+        VerifiedToken verified = new VerifiedToken(claims.getSubject(), claims.getExpiration().toInstant());
+        verifiedTokens.put(hash, verified);
+        return stop(sample, "parsed", Optional.of(verified));
     }
 
-    public boolean validateToken(String token, UserDetails userDetails) {
-        return extractUsername(token).equals(userDetails.getUsername()) && !isTokenExpired(token);
+    private Optional<VerifiedToken> stop(Timer.Sample sample, String source, Optional<VerifiedToken> result) {
+        sample.stop(meterRegistry.timer("auth.jwt.verify", "source", source, "outcome", result.isPresent() ? "valid" : "invalid"));
+        return result;
     }
 
-    private boolean isTokenExpired(String token) {
-        return Jwts.parser().setSigningKey(key).build()
-                .parseClaimsJws(token).getBody().getExpiration().before(new Date());
+    private static String sha256(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
-}
 
+    public record VerifiedToken(String username, Instant expiresAt) {
+
+        public boolean isExpired() {
+            return !expiresAt.isAfter(Instant.now());
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.gottomy2.departures.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Globalny licznik zmian lotów i gate'ów, z którego powstają ETagi list. Przesuwany po zatwierdzeniu zmiany
+ * i po aktualizacji modelu odczytu, więc ETag nigdy nie wyprzedza treści. Losowa epoka odróżnia
+ * instancje i restarty aplikacji.
+ */
+@Component
+public class ChangeSequence {
+
+    private final String epoch = Long.toHexString(new SecureRandom().nextLong());
+    private final AtomicLong value = new AtomicLong();
+    private final Duration timeBucket;
+
+    public ChangeSequence(@Value("${flights.etag.time-bucket:1m}") Duration timeBucket) {
+        this.timeBucket = timeBucket;
+    }
+
+    public String etag(String resource) {
+        return "\"" + resource + "-" + epoch + "-" + value.get() + "\"";
+    }
+
+    /**
+     * ETag listy, której treść zależy też od bieżącego czasu (np. {@code upcoming}): oprócz licznika zawiera
+     * numer przedziału czasu, więc odlot bez żadnej zmiany danych unieważnia go najpóźniej po {@code timeBucket}.
+     */
+    public String etag(String resource, boolean timeDependent) {
+        if (!timeDependent) {
+            return etag(resource);
+        }
+        long bucket = System.currentTimeMillis() / timeBucket.toMillis();
+        return "\"" + resource + "-" + epoch + "-" + value.get() + "-" + bucket + "\"";
+    }
+
+    public void advance() {
+        value.incrementAndGet();
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFlightChanged(FlightChangedEvent event) {
+        advance();
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFlightsChanged(FlightBatchChangedEvent event) {
+        advance();
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGateChanged(GateChangedEvent event) {
+        advance();
+    }
+}
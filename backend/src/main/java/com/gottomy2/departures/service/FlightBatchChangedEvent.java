@@ -0,0 +1,11 @@
+package com.gottomy2.departures.service;
+
+import java.util.List;
+
+/**
+ * Zmiany wielu lotów zapisane razem (import, zbiorcza zmiana statusu). Jedno zdarzenie zamiast jednego na wiersz:
+ * słuchacze stosują całą paczkę pod jedną blokadą, a strumień SSE wysyła subskrybentowi jedną wiadomość,
+ * więc paczka nie przepełnia jego bufora.
+ */
+public record FlightBatchChangedEvent(List<FlightChangedEvent> changes) {
+}
@@ -0,0 +1,32 @@
+package com.gottomy2.departures.service;
+
+import com.gottomy2.departures.model.Flight;
+
+/**
+ * Publikowane przez FlightService przy każdej zmianie lotu. Słuchacze dostają je po zatwierdzeniu transakcji.
+ * {@code previous} to stan sprzed zmiany (null dla nowego lotu albo gdy nie jest znany).
+ */
+public record FlightChangedEvent(Type type, Long flightId, Flight flight, Flight previous) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    public static FlightChangedEvent created(Flight flight) {
+        return new FlightChangedEvent(Type.CREATED, flight.getId(), flight.snapshot(), null);
+    }
+
+    public static FlightChangedEvent updated(Flight previous, Flight flight) {
+        return new FlightChangedEvent(Type.UPDATED, flight.getId(), flight.snapshot(), previous);
+    }
+
+    public static FlightChangedEvent deleted(Flight previous) {
+        return new FlightChangedEvent(Type.DELETED, previous.getId(), null, previous);
+    }
+
+    public static FlightChangedEvent deleted(Long flightId) {
+        return new FlightChangedEvent(Type.DELETED, flightId, null, null);
+    }
+}
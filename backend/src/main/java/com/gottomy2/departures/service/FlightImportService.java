@@ -0,0 +1,246 @@
+package com.gottomy2.departures.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gottomy2.departures.dto.ImportReport;
+import com.gottomy2.departures.model.Flight;
+import com.gottomy2.departures.model.FlightStatus;
+import com.gottomy2.departures.model.FlightZone;
+import com.gottomy2.departures.model.Gate;
+import com.gottomy2.departures.repository.FlightRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Strumieniowy import lotów z CSV (format flight_data.csv) lub NDJSON (jeden obiekt lotu jak w POST /api/flights na linię).
+ * Wiersze są czytane pojedynczo i zapisywane paczkami w osobnych transakcjach, gate'y rozwiązuje {@link GateResolver};
+ * błędny wiersz trafia do raportu i nie przerywa importu.
+ */
+@Slf4j
+@Service
+public class FlightImportService {
+
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    private static final DateTimeFormatter CSV_DEPARTURE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private final FlightRepository flightRepository;
+    private final GateResolver gateResolver;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+
+    public FlightImportService(FlightRepository flightRepository,
+                               GateResolver gateResolver,
+                               TransactionTemplate transactionTemplate,
+                               ApplicationEventPublisher eventPublisher,
+                               ObjectMapper objectMapper,
+                               @Value("${flights.import.batch-size:50}") int batchSize) {
+        this.flightRepository = flightRepository;
+        this.gateResolver = gateResolver;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+    }
+
+    public ImportReport importFlights(InputStream input, Format format) throws IOException {
+        long start = System.nanoTime();
+        Progress progress = new Progress();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        Map<String, Integer> columns = format == Format.CSV ? readHeader(reader.readLine()) : null;
+        long lineNumber = format == Format.CSV ? 1 : 0;
+
+        List<Row> batch = new ArrayList<>(batchSize);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                Flight flight = format == Format.CSV ? parseCsv(line, columns) : parseJson(line);
+                validate(flight);
+                Gate gate = flight.getGate();
+                flight.setGate(gate != null && gate.getGateNumber() != null ? gateResolver.resolve(gate.getGateNumber()) : null);
+                batch.add(new Row(lineNumber, flight));
+            } catch (RuntimeException | IOException e) {
+                progress.fail(lineNumber, message(e));
+            }
+            if (batch.size() >= batchSize) {
+                insertBatch(batch, progress);
+            }
+        }
+        insertBatch(batch, progress);
+
+        log.info("Import lotów ({}): {} zapisanych, {} odrzuconych w {} ms", format, progress.imported, progress.failed,
+                (System.nanoTime() - start) / 1_000_000);
+        return new ImportReport(progress.imported, progress.failed, progress.errors);
+    }
+
+    private void insertBatch(List<Row> batch, Progress progress) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(batch));
+            progress.imported += batch.size();
+        } catch (RuntimeException e) {
+            // Jeden zły wiersz wycofuje całą paczkę - ponawiamy pojedynczo, żeby wskazać winny wiersz
+            for (Row row : batch) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insert(List.of(row)));
+                    progress.imported++;
+                } catch (RuntimeException rowError) {
+                    progress.fail(row.line(), message(rowError));
+                }
+            }
+        }
+        batch.clear();
+    }
+
+    private void insert(List<Row> rows) {
+        // Świeże kopie - po wycofanej paczce encje mają już przydzielone id i wersję
+        List<Flight> flights = rows.stream().map(row -> row.flight().toBuilder().build()).toList();
+        flightRepository.saveAll(flights);
+        flightRepository.flush();
+        eventPublisher.publishEvent(new FlightBatchChangedEvent(flights.stream().map(FlightChangedEvent::created).toList()));
+    }
+
+    private static Map<String, Integer> readHeader(String header) {
+        if (header == null) {
+            throw new IllegalArgumentException("Empty CSV input");
+        }
+        List<String> names = splitCsv(header.replace("\uFEFF", ""));
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        return columns;
+    }
+
+    private static Flight parseCsv(String line, Map<String, Integer> columns) {
+        List<String> fields = splitCsv(line);
+        String gateNumber = field(fields, columns, "gate_number");
+        String departureTime = field(fields, columns, "departure_time");
+        String status = field(fields, columns, "status");
+        String zone = field(fields, columns, "zone");
+        String temperature = field(fields, columns, "temperature");
+
+        return Flight.builder()
+                .flightNumber(field(fields, columns, "flight_number"))
+                .destination(field(fields, columns, "destination"))
+                .status(status != null ? FlightStatus.valueOf(status) : null)
+                .departureTime(departureTime != null ? LocalDateTime.parse(departureTime, CSV_DEPARTURE_TIME) : null)
+                .zone(zone != null ? FlightZone.valueOf(zone) : null)
+                .gate(gateNumber != null ? new Gate(gateNumber) : null)
+                .temperature(temperature != null ? Double.valueOf(temperature) : null)
+                .build();
+    }
+
+    private Flight parseJson(String line) throws IOException {
+        Flight flight = objectMapper.readValue(line, Flight.class);
+        flight.setId(null);
+        flight.setVersion(null);
+        return flight;
+    }
+
+    private static void validate(Flight flight) {
+        if (flight.getFlightNumber() == null) {
+            throw new IllegalArgumentException("Missing flight number");
+        }
+        if (flight.getDestination() == null) {
+            throw new IllegalArgumentException("Missing destination");
+        }
+        if (flight.getStatus() == null) {
+            throw new IllegalArgumentException("Missing status");
+        }
+        if (flight.getDepartureTime() == null) {
+            throw new IllegalArgumentException("Missing departure time");
+        }
+        if (flight.getZone() == null) {
+            throw new IllegalArgumentException("Missing zone");
+        }
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    // Minimalny podział CSV: przecinki, pola w cudzysłowach i "" jako cudzysłów w polu
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String message(Throwable e) {
+        Throwable cause = NestedExceptionUtils.getMostSpecificCause(e);
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
+
+    private record Row(long line, Flight flight) {
+    }
+
+    private static class Progress {
+        private int imported;
+        private int failed;
+        private final List<ImportReport.RowError> errors = new ArrayList<>();
+
+        void fail(long line, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ImportReport.RowError(line, message));
+            }
+        }
+    }
+}
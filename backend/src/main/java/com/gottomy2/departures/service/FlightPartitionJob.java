@@ -0,0 +1,193 @@
+package com.gottomy2.departures.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Utrzymuje miesięczne partycje tabeli flights (PostgreSQL, changeset 16): zakłada partycje na kolejne miesiące
+ * i przenosi miesiące, które w całości odleciały, do flights_archive. Przeniesienie to DETACH/ATTACH partycji,
+ * bez kopiowania wierszy, więc zapytania tablicy i indeksy flights obejmują tylko bieżące odloty.
+ * DDL wykonuje jedna instancja naraz (blokada doradcza); po zatwierdzeniu usuwa z pamięci loty z przeniesionych miesięcy.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "flights.partitioning.enabled", havingValue = "true")
+public class FlightPartitionJob {
+
+    private static final Pattern MONTH_PARTITION = Pattern.compile("flights_(\\d{4})_(\\d{2})");
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    // Klucz pg_try_advisory_xact_lock wspólny dla wszystkich instancji
+    private static final long LOCK_KEY = 0x666c6967687473L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final FlightReadModel flightReadModel;
+    private final GateSchedule gateSchedule;
+    private final ChangeSequence changeSequence;
+    private final int monthsAhead;
+    private final Duration archiveAfter;
+
+    public FlightPartitionJob(JdbcTemplate jdbcTemplate,
+                              TransactionTemplate transactionTemplate,
+                              FlightReadModel flightReadModel,
+                              GateSchedule gateSchedule,
+                              ChangeSequence changeSequence,
+                              @Value("${flights.partitioning.months-ahead:3}") int monthsAhead,
+                              @Value("${flights.partitioning.archive-after:7d}") Duration archiveAfter) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.flightReadModel = flightReadModel;
+        this.gateSchedule = gateSchedule;
+        this.changeSequence = changeSequence;
+        this.monthsAhead = monthsAhead;
+        this.archiveAfter = archiveAfter;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${flights.partitioning.cron:0 30 3 * * *}")
+    public void maintain() {
+        long start = System.nanoTime();
+        try {
+            List<YearMonth> archived = transactionTemplate.execute(status -> {
+                if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, LOCK_KEY))) {
+                    return null;
+                }
+                return managePartitions();
+            });
+            if (archived == null) {
+                log.info("Partycje lotów utrzymuje inna instancja");
+            } else {
+                evictArchived(archived);
+            }
+        } catch (RuntimeException e) {
+            // Błąd DDL nie może zatrzymać startu ani harmonogramu; następne uruchomienie spróbuje ponownie
+            log.error("Utrzymanie partycji lotów nie powiodło się", e);
+        }
+        log.info("Utrzymanie partycji lotów zakończone w {} ms", Duration.ofNanos(System.nanoTime() - start).toMillis());
+    }
+
+    // Wywoływane w transakcji z blokadą doradczą; wszystkie zmiany partycji zatwierdzane razem. Zwraca miesiące przeniesione do archiwum
+    private List<YearMonth> managePartitions() {
+        // Miesiące z wierszami w partycji domyślnej też dostają własną partycję, inaczej nigdy nie trafią do archiwum
+        TreeSet<YearMonth> months = new TreeSet<>(jdbcTemplate.queryForList(
+                "SELECT DISTINCT to_char(departure_time, 'YYYY_MM') FROM flights_default", String.class)
+                .stream().map(suffix -> YearMonth.parse(suffix, SUFFIX)).toList());
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            months.add(current.plusMonths(i));
+        }
+        List<YearMonth> created = new ArrayList<>();
+        for (YearMonth month : months) {
+            if (createPartition(month)) {
+                created.add(month);
+            }
+        }
+
+        LocalDateTime cutoff = LocalDateTime.now().minus(archiveAfter);
+        List<YearMonth> archived = new ArrayList<>();
+        for (YearMonth month : monthPartitions()) {
+            if (!upperBound(month).isAfter(cutoff) && archivePartition(month)) {
+                archived.add(month);
+            }
+        }
+        log.info("Partycje lotów: utworzone {}, zarchiwizowane {}", created, archived);
+        return archived;
+    }
+
+    // Model odczytu odwzorowuje flights, więc traci dokładnie te miesiące, które opuściły tabelę
+    private void evictArchived(List<YearMonth> archived) {
+        if (archived.isEmpty()) {
+            return;
+        }
+        archived.forEach(month -> flightReadModel.evictArchived(lowerBound(month), upperBound(month)));
+        gateSchedule.evictDeparted();
+        changeSequence.advance();
+    }
+
+    private boolean createPartition(YearMonth month) {
+        String partition = partitionName("flights", month);
+        if (exists(partition)) {
+            return false;
+        }
+        // ATTACH odrzuci zakres, dla którego w partycji domyślnej są już wiersze, więc najpierw je przenosimy
+        jdbcTemplate.execute("CREATE TABLE " + partition + " (LIKE flights INCLUDING DEFAULTS)");
+        jdbcTemplate.update("WITH moved AS (DELETE FROM flights_default WHERE departure_time >= ? AND departure_time < ? RETURNING *) "
+                + "INSERT INTO " + partition + " SELECT * FROM moved", lowerBound(month), upperBound(month));
+        jdbcTemplate.execute("ALTER TABLE flights ATTACH PARTITION " + partition + " " + bounds(month));
+        return true;
+    }
+
+    private boolean archivePartition(YearMonth month) {
+        String partition = partitionName("flights", month);
+        String archive = partitionName("flights_archive", month);
+        if (exists(archive)) {
+            log.warn("Partycja {} już istnieje, {} zostaje w flights", archive, partition);
+            return false;
+        }
+        jdbcTemplate.execute("ALTER TABLE flights DETACH PARTITION " + partition);
+        // Klucz obcy odziedziczony po flights blokowałby usuwanie gate'ów używanych w archiwum
+        jdbcTemplate.execute("ALTER TABLE " + partition + " DROP CONSTRAINT IF EXISTS fk_flights_gates");
+        jdbcTemplate.execute("ALTER TABLE " + partition + " RENAME TO " + archive);
+        jdbcTemplate.execute("ALTER TABLE flights_archive ATTACH PARTITION " + archive + " " + bounds(month));
+        // Indeksy tablicy, których archiwum nie ma (status, strefa, trigramy), tylko zajmowałyby miejsce
+        jdbcTemplate.queryForList("SELECT i.indexrelid::regclass::text FROM pg_index i WHERE i.indrelid = ?::regclass "
+                        + "AND NOT EXISTS (SELECT 1 FROM pg_inherits h WHERE h.inhrelid = i.indexrelid)", String.class, archive)
+                .forEach(index -> jdbcTemplate.execute("DROP INDEX " + index));
+        return true;
+    }
+
+    private List<YearMonth> monthPartitions() {
+        List<String> partitions = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                        + "WHERE i.inhparent = 'flights'::regclass ORDER BY c.relname", String.class);
+        List<YearMonth> months = new ArrayList<>();
+        for (String partition : partitions) {
+            Matcher matcher = MONTH_PARTITION.matcher(partition);
+            if (matcher.matches()) {
+                months.add(YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+            }
+        }
+        return months;
+    }
+
+    private boolean exists(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, table));
+    }
+
+    private static String partitionName(String table, YearMonth month) {
+        return table + "_" + month.format(SUFFIX);
+    }
+
+    private static LocalDateTime lowerBound(YearMonth month) {
+        return month.atDay(1).atStartOfDay();
+    }
+
+    private static LocalDateTime upperBound(YearMonth month) {
+        return lowerBound(month.plusMonths(1));
+    }
+
+    private static String bounds(YearMonth month) {
+        return "FOR VALUES FROM ('" + lowerBound(month) + "') TO ('" + upperBound(month) + "')";
+    }
+}
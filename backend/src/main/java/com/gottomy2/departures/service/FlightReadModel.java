@@ -0,0 +1,360 @@
+package com.gottomy2.departures.service;
+
+import com.gottomy2.departures.dto.WeatherKey;
+import com.gottomy2.departures.model.Flight;
+import com.gottomy2.departures.model.FlightStatus;
+import com.gottomy2.departures.model.FlightZone;
+import com.gottomy2.departures.repository.FlightRepository;
+import com.gottomy2.specification.FlightFilter;
+import com.gottomy2.specification.FlightNumberMatch;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Model odczytu tablicy odlotów w pamięci. Odbudowywany z bazy przy starcie i aktualizowany
+ * po każdej zatwierdzonej zmianie lotu, obsługuje {@code getFlightsFiltered} bez zapytań do bazy.
+ * Odwzorowuje całą tabelę flights, więc obsługuje też filtry bez dolnej granicy odlotu. Loty wychodzą z modelu
+ * razem z miesiącem przeniesionym do archiwum ({@link #evictArchived}), tak jak z tabeli.
+ */
+@Slf4j
+@Component
+public class FlightReadModel {
+
+    private static final Comparator<Flight> DEPARTURE_ORDER = Comparator
+            .comparing(Flight::getDepartureTime, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Flight::getId);
+
+    private final FlightRepository flightRepository;
+    private final boolean enabled;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile boolean ready;
+    // Zmiany zatwierdzone w trakcie odbudowy, odtwarzane na wczytanym stanie; null poza odbudową
+    private List<Runnable> pending;
+
+    private final Map<Long, Flight> byId = new HashMap<>();
+    private final Map<FlightStatus, Set<Long>> byStatus = new EnumMap<>(FlightStatus.class);
+    private final Map<FlightZone, Set<Long>> byZone = new EnumMap<>(FlightZone.class);
+    private final NavigableSet<Flight> byDeparture = new TreeSet<>(DEPARTURE_ORDER);
+    private final NavigableMap<String, Set<Long>> byFlightNumber = new TreeMap<>();
+
+    public FlightReadModel(FlightRepository flightRepository,
+                           @Value("${flights.read-model.enabled:true}") boolean enabled) {
+        this.flightRepository = flightRepository;
+        this.enabled = enabled;
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Wczytuje loty z bazy bez blokowania odczytów. Zmiany zatwierdzone w międzyczasie trafiają do bufora
+     * i są odtwarzane na wczytanym stanie - te, które baza już uwzględniła, odrzuca porównanie wersji.
+     */
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        List<Flight> flights;
+        try {
+            flights = flightRepository.findAllWithGate();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            byId.clear();
+            byStatus.clear();
+            byZone.clear();
+            byDeparture.clear();
+            byFlightNumber.clear();
+            flights.forEach(flight -> add(flight.snapshot()));
+            pending.forEach(Runnable::run);
+            pending = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Model odczytu lotów odbudowany: {} lotów w {} ms", flights.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Usuwa loty z miesiąca, który FlightPartitionJob przeniósł do flights_archive
+    public void evictArchived(LocalDateTime from, LocalDateTime to) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeDeparting(from, to);
+            if (pending != null) {
+                pending.add(() -> removeDeparting(from, to));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Przed ChangeSequence, żeby nowy ETag nie wskazywał na starą treść
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFlightChanged(FlightChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            apply(event);
+            if (pending != null) {
+                pending.add(() -> apply(event));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFlightsChanged(FlightBatchChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            event.changes().forEach(this::apply);
+            if (pending != null) {
+                pending.add(() -> event.changes().forEach(this::apply));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGateChanged(GateChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            byId.values().stream()
+                    .filter(flight -> flight.getGate() != null && event.gateId().equals(flight.getGate().getId()))
+                    .forEach(flight -> flight.setGate(event.gate() != null ? event.gate().snapshot() : null));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Optional<Long> findVersion(Long id) {
+        lock.readLock().lock();
+        try {
+            return Optional.ofNullable(byId.get(id)).map(Flight::getVersion);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void applyTemperature(WeatherKey key, Double temperature) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            applyTemperature(key.date(), key.city(), temperature);
+            if (pending != null) {
+                pending.add(() -> applyTemperature(key.date(), key.city(), temperature));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void apply(FlightChangedEvent event) {
+        if (event.type() == FlightChangedEvent.Type.DELETED) {
+            remove(event.flightId());
+            return;
+        }
+        Flight flight = event.flight();
+        Flight current = byId.get(event.flightId());
+        // Stan wczytany z bazy może być już nowszy niż odtwarzana zmiana
+        if (current != null && current.getVersion() != null && flight.getVersion() != null
+                && current.getVersion() > flight.getVersion()) {
+            return;
+        }
+        remove(event.flightId());
+        add(flight.snapshot());
+    }
+
+    private void removeDeparting(LocalDateTime from, LocalDateTime to) {
+        byDeparture.subSet(probe(from), true, probe(to), false).stream().map(Flight::getId).toList().forEach(this::remove);
+    }
+
+    private void applyTemperature(LocalDate date, String city, Double temperature) {
+        // Wersja rośnie tak samo jak w FlightRepository.updateTemperatures; powtórzenie nic nie zmienia
+        byDeparture.subSet(probe(date.atStartOfDay()), true, probe(date.plusDays(1).atStartOfDay()), false).stream()
+                .filter(flight -> city.equals(flight.getDestination()))
+                .filter(flight -> !temperature.equals(flight.getTemperature()))
+                .forEach(flight -> {
+                    flight.setTemperature(temperature);
+                    flight.setVersion(flight.getVersion() != null ? flight.getVersion() + 1 : null);
+                });
+    }
+
+    public Page<Flight> find(FlightFilter filter, Pageable pageable) {
+        lock.readLock().lock();
+        try {
+            List<Flight> matching = new ArrayList<>();
+            NavigableSet<Flight> window = departureWindow(filter);
+            Collection<Long> candidates = candidates(filter);
+            if (candidates == null || (filter.hasDepartureWindow() && window.size() <= candidates.size())) {
+                window.stream().filter(filter::matches).forEach(matching::add);
+            } else {
+                candidates.stream().map(byId::get).filter(filter::matches).forEach(matching::add);
+                matching.sort(DEPARTURE_ORDER);
+            }
+
+            if (pageable.getSort().isSorted()) {
+                matching.sort(comparator(pageable.getSort()));
+            }
+
+            if (pageable.isUnpaged()) {
+                return new PageImpl<>(matching.stream().map(Flight::snapshot).toList());
+            }
+            int from = (int) Math.min(pageable.getOffset(), matching.size());
+            int to = Math.min(from + pageable.getPageSize(), matching.size());
+            List<Flight> content = matching.subList(from, to).stream().map(Flight::snapshot).toList();
+            return new PageImpl<>(content, pageable, matching.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Zakres indeksu odlotów odpowiadający oknu filtra; bez okna - cały indeks
+    private NavigableSet<Flight> departureWindow(FlightFilter filter) {
+        LocalDateTime from = filter.effectiveFrom(LocalDateTime.now());
+        LocalDateTime to = filter.departureTo();
+        if (from != null && to != null) {
+            return from.isBefore(to) ? byDeparture.subSet(probe(from), true, probe(to), false) : Collections.emptyNavigableSet();
+        }
+        if (from != null) {
+            return byDeparture.tailSet(probe(from), true);
+        }
+        return to != null ? byDeparture.headSet(probe(to), false) : byDeparture;
+    }
+
+    private static Flight probe(LocalDateTime departureTime) {
+        return Flight.builder().departureTime(departureTime).id(Long.MIN_VALUE).build();
+    }
+
+    // Najmniejszy zbiór kandydatów z indeksów wtórnych; null oznacza pełny przegląd w kolejności odlotów
+    private Collection<Long> candidates(FlightFilter filter) {
+        List<Set<Long>> sets = new ArrayList<>();
+        if (filter.status() != null) {
+            sets.add(byStatus.getOrDefault(filter.status(), Set.of()));
+        }
+        if (filter.zone() != null) {
+            sets.add(byZone.getOrDefault(filter.zone(), Set.of()));
+        }
+        String flightNumber = filter.flightNumber();
+        if (flightNumber != null && !flightNumber.isEmpty() && filter.flightNumberMatch() == FlightNumberMatch.PREFIX) {
+            String prefix = flightNumber.toLowerCase(Locale.ROOT);
+            Set<Long> ids = new HashSet<>();
+            byFlightNumber.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values().forEach(ids::addAll);
+            sets.add(ids);
+        }
+        return sets.stream().min(Comparator.comparingInt(Set::size)).orElse(null);
+    }
+
+    private void add(Flight flight) {
+        byId.put(flight.getId(), flight);
+        byDeparture.add(flight);
+        if (flight.getStatus() != null) {
+            byStatus.computeIfAbsent(flight.getStatus(), status -> new HashSet<>()).add(flight.getId());
+        }
+        if (flight.getZone() != null) {
+            byZone.computeIfAbsent(flight.getZone(), zone -> new HashSet<>()).add(flight.getId());
+        }
+        byFlightNumber.computeIfAbsent(flightNumberKey(flight), number -> new HashSet<>()).add(flight.getId());
+    }
+
+    private void remove(Long id) {
+        Flight flight = byId.remove(id);
+        if (flight == null) {
+            return;
+        }
+        byDeparture.remove(flight);
+        if (flight.getStatus() != null) {
+            byStatus.get(flight.getStatus()).remove(id);
+        }
+        if (flight.getZone() != null) {
+            byZone.get(flight.getZone()).remove(id);
+        }
+        String key = flightNumberKey(flight);
+        Set<Long> ids = byFlightNumber.get(key);
+        ids.remove(id);
+        if (ids.isEmpty()) {
+            byFlightNumber.remove(key);
+        }
+    }
+
+    private static String flightNumberKey(Flight flight) {
+        return flight.getFlightNumber() != null ? flight.getFlightNumber().toLowerCase(Locale.ROOT) : "";
+    }
+
+    private static Comparator<Flight> comparator(Sort sort) {
+        Comparator<Flight> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<Flight> next = switch (order.getProperty()) {
+                case "id" -> Comparator.comparing(Flight::getId);
+                case "flightNumber" -> Comparator.comparing(Flight::getFlightNumber, Comparator.nullsLast(Comparator.naturalOrder()));
+                case "destination" -> Comparator.comparing(Flight::getDestination, Comparator.nullsLast(Comparator.naturalOrder()));
+                case "status" -> Comparator.comparing(Flight::getStatus, Comparator.nullsLast(Comparator.naturalOrder()));
+                case "zone" -> Comparator.comparing(Flight::getZone, Comparator.nullsLast(Comparator.naturalOrder()));
+                case "departureTime" -> Comparator.comparing(Flight::getDepartureTime, Comparator.nullsLast(Comparator.<LocalDateTime>naturalOrder()));
+                case "temperature" -> Comparator.comparing(Flight::getTemperature, Comparator.nullsLast(Comparator.naturalOrder()));
+                default -> throw new IllegalArgumentException("Unsupported sort property: " + order.getProperty());
+            };
+            if (order.isDescending()) {
+                next = next.reversed();
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        return comparator.thenComparing(DEPARTURE_ORDER);
+    }
+}
@@ -1,67 +1,139 @@
 package com.gottomy2.departures.service;
 
+import com.gottomy2.departures.dto.BulkStatusUpdate;
+import com.gottomy2.departures.dto.CursorPage;
+import com.gottomy2.departures.dto.FlightCursor;
+import com.gottomy2.departures.dto.FlightView;
+import com.gottomy2.departures.dto.GateSlot;
 import com.gottomy2.departures.model.Flight;
-import com.gottomy2.departures.model.FlightStatus;
-import com.gottomy2.departures.model.FlightZone;
 import com.gottomy2.departures.model.Gate;
+import com.gottomy2.departures.repository.ArchivedFlightRepository;
 import com.gottomy2.departures.repository.FlightRepository;
-import com.gottomy2.departures.repository.GateRepository;
+import com.gottomy2.specification.FlightFilter;
 import com.gottomy2.specification.FlightSpecification;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
+@Timed("flight.service")
 public class FlightService {
 
     private final FlightRepository flightRepository;
-    private final GateRepository gateRepository;
-    private final WeatherService weatherService;
+    private final ArchivedFlightRepository archivedFlightRepository;
+    private final GateResolver gateResolver;
+    private final WeatherEnricher weatherEnricher;
+    private final FlightReadModel flightReadModel;
+    private final GateSchedule gateSchedule;
+    private final ApplicationEventPublisher eventPublisher;
 
+    @Value("${weather.prefetch.enabled:true}")
+    private boolean weatherPrefetchEnabled;
+
+    @Value("${flights.bulk.chunk-size:1000}")
+    private int bulkChunkSize;
+
+    @Transactional(readOnly = true)
     public Page<Flight> getAllFlights(Pageable pageable) {
         return flightRepository.findAll(pageable);
     }
 
+    @Transactional(readOnly = true)
     public Flight getFlightById(Long id) {
         return flightRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Flight not found with id: " + id));
     }
 
-    private final Map<String, Double> weatherCache = new HashMap<>();
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Long getFlightVersion(Long id) {
+        // Brak w modelu (odbudowa, model wyłączony albo nieistniejący lot) - rozstrzyga baza
+        return flightReadModel.findVersion(id).or(() -> flightRepository.findVersionById(id))
+                .orElseThrow(() -> new RuntimeException("Flight not found with id: " + id));
+    }
 
-    public Page<Flight> getFlightsFiltered(String flightNumber, FlightStatus status, FlightZone zone, Pageable pageable) {
-        Specification<Flight> spec = FlightSpecification.filterFlights(flightNumber, status, zone);
-        Page<Flight> flights = flightRepository.findAll(spec, pageable);
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Page<Flight> getFlightsFiltered(FlightFilter filter, Pageable pageable) {
+        Page<Flight> flights = flightReadModel.isReady()
+                ? flightReadModel.find(filter, pageable)
+                : flightRepository.findAll(FlightSpecification.filterFlights(filter), pageable);
 
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+        // Przy włączonym prefetchu temperatury są już zapisane w bazie
+        if (!weatherPrefetchEnabled) {
+            weatherEnricher.enrich(flights.getContent());
+        }
+
+        return flights;
+    }
 
-        flights.forEach(flight -> {
-            String city = flight.getDestination();
-            String departureDate = flight.getDepartureTime().toLocalDate().format(formatter);
+    /**
+     * Płaska lista lotów bez zarządzanych encji. Temperatury pochodzą z bazy (prefetch), bez wzbogacania w locie.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Page<FlightView> getFlightViews(FlightFilter filter, Pageable pageable) {
+        if (flightReadModel.isReady()) {
+            return flightReadModel.find(filter, pageable).map(FlightView::of);
+        }
+        return flightRepository.findViews(FlightSpecification.filterFlights(filter), pageable);
+    }
 
-            String cacheKey = city + "-" + departureDate;
+    /**
+     * Odloty z archiwum (miesiące przeniesione z flights przez FlightPartitionJob), z tym samym filtrem co lista lotów.
+     */
+    @Transactional(readOnly = true)
+    public Page<FlightView> getFlightHistory(FlightFilter filter, Pageable pageable) {
+        return archivedFlightRepository.findAll(FlightSpecification.filterArchivedFlights(filter), pageable)
+                .map(FlightView::of);
+    }
 
-            if (weatherCache.containsKey(cacheKey)) {
-                flight.setTemperature(weatherCache.get(cacheKey));
-            } else {
-                Double temperature = weatherService.getTemperature(city, departureDate);
-                if (temperature != null) {
-                    weatherCache.put(cacheKey, temperature);
-                    flight.setTemperature(temperature);
-                }
-            }
-        });
+    @Transactional(readOnly = true)
+    public CursorPage<Flight> getFlightsByCursor(FlightFilter filter, String cursorToken, int size) {
+        FlightCursor cursor = cursorToken != null && !cursorToken.isEmpty() ? FlightCursor.decode(cursorToken) : null;
+        boolean backward = cursor != null && cursor.backward();
 
-        return flights;
+        Specification<Flight> spec = FlightSpecification.filterFlights(filter);
+        if (cursor != null) {
+            spec = spec.and(backward ? FlightSpecification.beforeCursor(cursor) : FlightSpecification.afterCursor(cursor));
+        }
+        Sort.Direction direction = backward ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort sort = Sort.by(direction, "departureTime").and(Sort.by(direction, "id"));
+
+        // Jeden wiersz więcej mówi, czy istnieje kolejna strona - bez zapytania COUNT
+        List<Flight> rows = flightRepository.findBy(spec, query -> query.sortBy(sort).limit(size + 1).all());
+        boolean hasMore = rows.size() > size;
+        List<Flight> flights = new ArrayList<>(rows.subList(0, Math.min(size, rows.size())));
+        if (backward) {
+            Collections.reverse(flights);
+        }
+
+        if (!weatherPrefetchEnabled) {
+            weatherEnricher.enrich(flights);
+        }
+
+        if (flights.isEmpty()) {
+            return new CursorPage<>(flights, null, null, size);
+        }
+        boolean hasNext = backward || hasMore;
+        boolean hasPrevious = backward ? hasMore : cursor != null;
+        String next = hasNext ? FlightCursor.after(flights.get(flights.size() - 1)).encode() : null;
+        String previous = hasPrevious ? FlightCursor.before(flights.get(0)).encode() : null;
+        return new CursorPage<>(flights, next, previous, size);
     }
 
     public Flight saveFlight(Flight flight) {
@@ -69,11 +141,15 @@ public class FlightService {
         if (flight.getGate() != null && flight.getGate().getGateNumber() != null) {
             flight.setGate(getOrCreateGate(flight.getGate().getGateNumber()));
         }
-        return flightRepository.save(flight);
+        Flight savedFlight = flightRepository.save(flight);
+        gateSchedule.reserve(savedFlight);
+        eventPublisher.publishEvent(FlightChangedEvent.created(savedFlight));
+        return savedFlight;
     }
 
     public Flight updateFlight(Long id, Flight updatedFlight) {
         Flight existingFlight = getFlightById(id);
+        Flight previous = existingFlight.snapshot();
 
         existingFlight.setFlightNumber(updatedFlight.getFlightNumber());
         existingFlight.setDestination(updatedFlight.getDestination());
@@ -89,18 +165,65 @@ public class FlightService {
             existingFlight.setGate(null);
         }
 
-        return flightRepository.save(existingFlight);
+        // Flush podbija wersję przed publikacją zdarzenia
+        Flight savedFlight = flightRepository.saveAndFlush(existingFlight);
+        gateSchedule.reserve(savedFlight);
+        eventPublisher.publishEvent(FlightChangedEvent.updated(previous, savedFlight));
+        return savedFlight;
+    }
+
+    public int updateStatuses(BulkStatusUpdate request) {
+        if (request.status() == null) {
+            throw new RuntimeException("Status is required");
+        }
+        if (!request.hasSelection()) {
+            throw new RuntimeException("Bulk update requires ids, a filter or a departure window");
+        }
+
+        Specification<Flight> spec = FlightSpecification.departingBetween(request.departureFrom(), request.departureTo());
+        if (request.filter() != null) {
+            spec = spec.and(FlightSpecification.filterFlights(request.filter()));
+        }
+        if (request.ids() != null && !request.ids().isEmpty()) {
+            spec = spec.and(FlightSpecification.idIn(request.ids()));
+        }
+
+        // Jedna transakcja, UPDATE ... WHERE id IN (...) w porcjach mieszczących się w limicie parametrów
+        List<Long> ids = flightRepository.findIds(spec);
+        int updated = 0;
+        for (int from = 0; from < ids.size(); from += bulkChunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + bulkChunkSize, ids.size()));
+            Map<Long, Flight> previous = new HashMap<>();
+            flightRepository.findAllById(chunk).forEach(flight -> previous.put(flight.getId(), flight.snapshot()));
+            // Zmienione sloty rezerwowane przed UPDATE; kolizja (409) wycofuje całą transakcję, także wcześniejsze porcje
+            gateSchedule.reserveAll(previous.values().stream()
+                    .map(flight -> {
+                        Flight target = flight.snapshot();
+                        target.setStatus(request.status());
+                        if (request.departureTime() != null) {
+                            target.setDepartureTime(request.departureTime());
+                        }
+                        return target;
+                    })
+                    .filter(target -> !Objects.equals(GateSlot.of(target), GateSlot.of(previous.get(target.getId()))))
+                    .toList());
+            updated += flightRepository.updateStatus(chunk, request.status(), request.departureTime());
+            // Jedno zdarzenie na porcję - strumień wysyła je subskrybentowi jako jedną wiadomość
+            eventPublisher.publishEvent(new FlightBatchChangedEvent(flightRepository.findAllById(chunk).stream()
+                    .map(flight -> FlightChangedEvent.updated(previous.get(flight.getId()), flight))
+                    .toList()));
+        }
+        return updated;
     }
 
     private Gate getOrCreateGate(String gateNumber) {
-        return gateRepository.findByGateNumber(gateNumber)
-                .orElseGet(() -> gateRepository.save(new Gate(gateNumber)));
+        return gateResolver.resolve(gateNumber);
     }
 
     public void deleteFlight(Long id) {
-        if (!flightRepository.existsById(id)) {
-            throw new RuntimeException("Flight not found with id: " + id);
-        }
-        flightRepository.deleteById(id);
+        Flight flight = getFlightById(id);
+        Flight previous = flight.snapshot();
+        flightRepository.delete(flight);
+        eventPublisher.publishEvent(FlightChangedEvent.deleted(previous));
     }
 }
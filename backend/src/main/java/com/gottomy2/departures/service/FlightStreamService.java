@@ -0,0 +1,189 @@
+package com.gottomy2.departures.service;
+
+import com.gottomy2.departures.model.Flight;
+import com.gottomy2.specification.FlightFilter;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Strumień zmian lotów (Server-Sent Events) dla tablic odlotów: najpierw snapshot, potem tylko delty.
+ * Bezczynni subskrybenci nie zajmują wątków żądań, a każdy ma własny, ograniczony bufor -
+ * klient, który nie nadąża z odbiorem, jest rozłączany.
+ */
+@Slf4j
+@Service
+public class FlightStreamService {
+
+    private final FlightService flightService;
+    private final long timeoutMs;
+    private final int bufferSize;
+    private final ExecutorService dispatcher;
+
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequence = new AtomicLong();
+
+    public FlightStreamService(FlightService flightService,
+                               @Value("${flights.stream.timeout-ms:1800000}") long timeoutMs,
+                               @Value("${flights.stream.buffer-size:64}") int bufferSize,
+                               @Value("${flights.stream.dispatcher-threads:4}") int dispatcherThreads) {
+        this.flightService = flightService;
+        this.timeoutMs = timeoutMs;
+        this.bufferSize = bufferSize;
+        this.dispatcher = Executors.newFixedThreadPool(dispatcherThreads, new CustomizableThreadFactory("flight-stream-"));
+    }
+
+    public SseEmitter subscribe(FlightFilter filter, Pageable snapshotPage) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscription subscription = new Subscription(emitter, filter, new ArrayBlockingQueue<>(bufferSize));
+
+        emitter.onCompletion(() -> subscriptions.remove(subscription));
+        emitter.onTimeout(() -> subscriptions.remove(subscription));
+        emitter.onError(ex -> subscriptions.remove(subscription));
+        subscriptions.add(subscription);
+
+        List<Flight> snapshot = flightService.getFlightsFiltered(filter, snapshotPage).getContent();
+        enqueue(subscription, SseEmitter.event()
+                .id(String.valueOf(sequence.get()))
+                .name("snapshot")
+                .data(snapshot, MediaType.APPLICATION_JSON));
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return subscriptions.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFlightChanged(FlightChangedEvent event) {
+        String id = String.valueOf(sequence.incrementAndGet());
+        for (Subscription subscription : subscriptions) {
+            Delta delta = delta(event, subscription.filter());
+            if (delta != null) {
+                enqueue(subscription, SseEmitter.event().id(id).name(delta.event()).data(delta.data(), MediaType.APPLICATION_JSON));
+            }
+        }
+    }
+
+    // Cała paczka jako jedna wiadomość "batch" z deltami widocznymi dla filtra - zajmuje jedno miejsce w buforze
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFlightsChanged(FlightBatchChangedEvent event) {
+        String id = String.valueOf(sequence.incrementAndGet());
+        for (Subscription subscription : subscriptions) {
+            List<Delta> deltas = event.changes().stream()
+                    .map(change -> delta(change, subscription.filter()))
+                    .filter(Objects::nonNull)
+                    .toList();
+            if (!deltas.isEmpty()) {
+                enqueue(subscription, SseEmitter.event().id(id).name("batch").data(deltas, MediaType.APPLICATION_JSON));
+            }
+        }
+    }
+
+    @Scheduled(fixedRateString = "${flights.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        // Komentarz SSE utrzymuje połączenie przez proxy i wykrywa rozłączonych klientów
+        for (Subscription subscription : subscriptions) {
+            enqueue(subscription, SseEmitter.event().comment("heartbeat"));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscriptions.forEach(subscription -> subscription.emitter().complete());
+        dispatcher.shutdownNow();
+    }
+
+    // null - zmiana nie dotyczy lotów widocznych dla tego filtra
+    private Delta delta(FlightChangedEvent event, FlightFilter filter) {
+        boolean matches = event.flight() != null && filter.matches(event.flight());
+        if (matches) {
+            return new Delta(event.type() == FlightChangedEvent.Type.CREATED ? "created" : "updated", event.flight());
+        }
+        // Usunięty albo wypadł z filtra - "deleted" tylko, jeśli subskrybent mógł go wcześniej widzieć
+        boolean matchedBefore = event.type() != FlightChangedEvent.Type.CREATED
+                && (event.previous() == null || filter.matches(event.previous()));
+        if (!matchedBefore) {
+            return null;
+        }
+        return new Delta("deleted", Map.of("id", event.flightId()));
+    }
+
+    private void enqueue(Subscription subscription, SseEmitter.SseEventBuilder event) {
+        if (!subscription.queue().offer(event)) {
+            log.debug("Subskrybent strumienia lotów nie nadąża, rozłączam");
+            drop(subscription, null);
+            return;
+        }
+        if (subscription.draining().compareAndSet(false, true)) {
+            try {
+                dispatcher.execute(() -> drain(subscription));
+            } catch (RejectedExecutionException e) {
+                subscription.draining().set(false);
+            }
+        }
+    }
+
+    private void drain(Subscription subscription) {
+        do {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while ((event = subscription.queue().poll()) != null) {
+                    subscription.emitter().send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                subscription.draining().set(false);
+                drop(subscription, e);
+                return;
+            }
+            subscription.draining().set(false);
+            // Zdarzenie mogło dojść między ostatnim poll() a zwolnieniem flagi
+        } while (!subscription.queue().isEmpty() && subscription.draining().compareAndSet(false, true));
+    }
+
+    private void drop(Subscription subscription, Throwable cause) {
+        if (subscriptions.remove(subscription)) {
+            subscription.queue().clear();
+            if (cause != null) {
+                subscription.emitter().completeWithError(cause);
+            } else {
+                subscription.emitter().complete();
+            }
+        }
+    }
+
+    // Nazwa zdarzenia SSE i jego dane; w wiadomości "batch" serializowane jako {"event": ..., "data": ...}
+    private record Delta(String event, Object data) {
+    }
+
+    private record Subscription(SseEmitter emitter,
+                                FlightFilter filter,
+                                Queue<SseEmitter.SseEventBuilder> queue,
+                                AtomicBoolean draining) {
+
+        Subscription(SseEmitter emitter, FlightFilter filter, Queue<SseEmitter.SseEventBuilder> queue) {
+            this(emitter, filter, queue, new AtomicBoolean());
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.gottomy2.departures.service;
+
+import com.gottomy2.departures.model.Gate;
+
+/**
+ * Publikowane przez GateService przy zmianie lub usunięciu gate'a. Dla usuniętego gate'a {@code gate} jest null.
+ */
+public record GateChangedEvent(Long gateId, Gate gate) {
+
+    public static GateChangedEvent changed(Gate gate) {
+        return new GateChangedEvent(gate.getId(), gate.snapshot());
+    }
+
+    public static GateChangedEvent deleted(Long gateId) {
+        return new GateChangedEvent(gateId, null);
+    }
+}
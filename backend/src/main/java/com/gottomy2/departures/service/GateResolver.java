@@ -0,0 +1,131 @@
+package com.gottomy2.departures.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.gottomy2.departures.model.Gate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Mapa numer gate'a -> gate z atomowym "pobierz albo utwórz". Nowe gate'y zakładane są upsertem
+ * we własnej transakcji, więc w pamięci trafiają tylko zatwierdzone wiersze, a równoległe zapisy
+ * tego samego numeru nie kończą się naruszeniem unikalności. Mapa jest lokalna dla instancji:
+ * zmiany gate'ów na innych instancjach widać najpóźniej po {@code gates.resolver.ttl}.
+ */
+@Slf4j
+@Component
+public class GateResolver {
+
+    private static final String PG_UPSERT =
+            "INSERT INTO gates (gate_number, version) VALUES (?, 0) ON CONFLICT (gate_number) DO NOTHING RETURNING id, version";
+    private static final String INSERT = "INSERT INTO gates (gate_number, version) VALUES (?, 0)";
+    private static final String SELECT = "SELECT id, version FROM gates WHERE gate_number = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Cache<String, Gate> byNumber;
+
+    private volatile Boolean postgres;
+
+    public GateResolver(JdbcTemplate jdbcTemplate,
+                        PlatformTransactionManager transactionManager,
+                        ApplicationEventPublisher eventPublisher,
+                        @Value("${gates.resolver.max-size:10000}") long maxSize,
+                        @Value("${gates.resolver.ttl:5m}") Duration ttl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.byNumber = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Zwraca odłączoną kopię gate'a o podanym numerze, zakładając go w razie potrzeby.
+     */
+    public Gate resolve(String gateNumber) {
+        Gate cached = byNumber.getIfPresent(gateNumber);
+        if (cached != null) {
+            return cached.snapshot();
+        }
+        Gate gate = transactionTemplate.execute(status -> getOrCreate(gateNumber));
+        Gate existing = byNumber.asMap().putIfAbsent(gateNumber, gate);
+        return (existing != null ? existing : gate).snapshot();
+    }
+
+    public void evict(Long gateId) {
+        byNumber.asMap().values().removeIf(gate -> gate.getId().equals(gateId));
+    }
+
+    // Ponowne usunięcie po zatwierdzeniu - odczyt między evict() a commitem mógł wstawić starą wartość
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGateChanged(GateChangedEvent event) {
+        evict(event.gateId());
+    }
+
+    public int size() {
+        return byNumber.asMap().size();
+    }
+
+    private Gate getOrCreate(String gateNumber) {
+        if (isPostgres()) {
+            List<Gate> inserted = jdbcTemplate.query(PG_UPSERT, (rs, row) -> gate(rs.getLong("id"), gateNumber, rs.getLong("version")), gateNumber);
+            if (!inserted.isEmpty()) {
+                eventPublisher.publishEvent(GateChangedEvent.changed(inserted.get(0)));
+                return inserted.get(0);
+            }
+        } else {
+            // Bez ON CONFLICT: próba wstawienia, a przy duplikacie odczyt istniejącego wiersza
+            List<Gate> existing = select(gateNumber);
+            if (!existing.isEmpty()) {
+                return existing.get(0);
+            }
+            try {
+                jdbcTemplate.update(INSERT, gateNumber);
+                Gate created = select(gateNumber).get(0);
+                eventPublisher.publishEvent(GateChangedEvent.changed(created));
+                return created;
+            } catch (DuplicateKeyException e) {
+                log.debug("Gate {} utworzony równolegle", gateNumber);
+            }
+        }
+        // Osobne zapytanie widzi wiersz zatwierdzony przez konkurencyjną transakcję
+        return select(gateNumber).get(0);
+    }
+
+    private List<Gate> select(String gateNumber) {
+        return jdbcTemplate.query(SELECT, (rs, row) -> gate(rs.getLong("id"), gateNumber, rs.getLong("version")), gateNumber);
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            try {
+                postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                        "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName()));
+            } catch (DataAccessException e) {
+                return false;
+            }
+        }
+        return postgres;
+    }
+
+    private static Gate gate(Long id, String gateNumber, Long version) {
+        return Gate.builder().id(id).gateNumber(gateNumber).version(version).build();
+    }
+}
@@ -0,0 +1,306 @@
+package com.gottomy2.departures.service;
+
+import com.gottomy2.departures.dto.GateConflict;
+import com.gottomy2.departures.dto.GateOccupancy;
+import com.gottomy2.departures.dto.GateSlot;
+import com.gottomy2.departures.exception.GateConflictException;
+import com.gottomy2.departures.model.Flight;
+import com.gottomy2.departures.model.FlightStatus;
+import com.gottomy2.departures.repository.FlightRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Indeks zajętości gate'ów w pamięci. Każdy gate ma zbiór slotów uporządkowany po godzinie odlotu; przy stałym
+ * czasie obsługi dwa okna nakładają się dokładnie wtedy, gdy odloty dzieli mniej niż {@code turnaround},
+ * więc sprawdzenie kolizji to jedno wyszukiwanie w drzewie - O(log n), bez zapytania do bazy.
+ * Trzyma tylko sloty, których okno jeszcze się nie skończyło - odloty od {@code now - turnaround}.
+ */
+@Slf4j
+@Component
+public class GateSchedule {
+
+    private static final Comparator<GateSlot> SLOT_ORDER = Comparator
+            .comparing(GateSlot::departureTime)
+            .thenComparing(GateSlot::flightId);
+
+    private final FlightRepository flightRepository;
+    private final Duration turnaround;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, GateSlot> byFlight = new HashMap<>();
+    private final Map<Long, NavigableSet<GateSlot>> byGate = new HashMap<>();
+    // Zmiany z czasu odbudowy, odtwarzane na wczytanych slotach; null poza odbudową
+    private List<Runnable> pending;
+
+    public GateSchedule(FlightRepository flightRepository,
+                        @Value("${gates.turnaround:45m}") Duration turnaround) {
+        this.flightRepository = flightRepository;
+        this.turnaround = turnaround;
+    }
+
+    /**
+     * Wczytuje sloty bez blokowania odczytów; zmiany zatwierdzone w trakcie wczytywania są buforowane i odtwarzane
+     * na wczytanym stanie w kolejności zatwierdzenia, więc żadna nie ginie przy podmianie indeksu.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        LocalDateTime from = LocalDateTime.now().minus(turnaround);
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        List<GateSlot> slots;
+        try {
+            slots = flightRepository.findGateSlots(FlightStatus.ODWOŁANY, from);
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            byFlight.clear();
+            byGate.clear();
+            slots.forEach(this::add);
+            pending.forEach(Runnable::run);
+            pending = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Indeks zajętości gate'ów odbudowany: {} slotów", slots.size());
+    }
+
+    @Scheduled(cron = "${gates.schedule.evict-cron:0 */15 * * * *}")
+    public void evictDeparted() {
+        GateSlot bound = probe(LocalDateTime.now().minus(turnaround), Long.MIN_VALUE);
+        lock.writeLock().lock();
+        try {
+            byGate.values().forEach(slots -> {
+                NavigableSet<GateSlot> departed = slots.headSet(bound, false);
+                departed.forEach(slot -> byFlight.remove(slot.flightId()));
+                departed.clear();
+            });
+            byGate.values().removeIf(Set::isEmpty);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Sprawdza kolizję i od razu rezerwuje slot lotu, żeby równoległy zapis na ten sam gate jej nie przeoczył.
+     * Przy wycofaniu transakcji poprzedni slot lotu jest przywracany.
+     */
+    public void reserve(Flight flight) {
+        reserveAll(List.of(flight));
+    }
+
+    /**
+     * Jak {@link #reserve}, dla wielu lotów naraz (masowa zmiana godziny lub statusu). Loty zwalniają swoje
+     * dotychczasowe sloty i są sprawdzane także względem siebie; przy kolizji żaden slot się nie zmienia.
+     */
+    public void reserveAll(List<Flight> flights) {
+        lock.writeLock().lock();
+        try {
+            Map<Long, GateSlot> previous = new LinkedHashMap<>();
+            flights.forEach(flight -> previous.put(flight.getId(), put(flight.getId(), null)));
+            List<GateSlot> slots = new ArrayList<>();
+            for (Flight flight : flights) {
+                GateSlot slot = GateSlot.of(flight);
+                Optional<GateSlot> conflict = slot != null ? firstConflict(slot) : Optional.empty();
+                if (conflict.isPresent()) {
+                    previous.forEach(this::put);
+                    throw new GateConflictException("Gate " + flight.getGate().getGateNumber() + " is occupied by flight "
+                            + conflict.get().flightId() + " departing at " + conflict.get().departureTime());
+                }
+                if (slot != null) {
+                    add(slot);
+                    slots.add(slot);
+                }
+            }
+            replayAfterRebuild(() -> {
+                previous.keySet().forEach(flightId -> put(flightId, null));
+                slots.forEach(this::add);
+            });
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        if (status != STATUS_COMMITTED) {
+                            restore(previous);
+                        }
+                    }
+                });
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFlightChanged(FlightChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            apply(event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFlightsChanged(FlightBatchChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            event.changes().forEach(this::apply);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<GateOccupancy> schedule(Long gateId, LocalDateTime from, LocalDateTime to) {
+        lock.readLock().lock();
+        try {
+            NavigableSet<GateSlot> slots = byGate.getOrDefault(gateId, Collections.emptyNavigableSet());
+            return overlapping(slots, from, to).stream().map(this::occupancy).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Wszystkie pary nakładających się slotów; para (a, b) sprawdzana tylko w przód, więc bez duplikatów
+    public List<GateConflict> conflicts(LocalDateTime from, LocalDateTime to) {
+        lock.readLock().lock();
+        try {
+            List<GateConflict> conflicts = new ArrayList<>();
+            byGate.forEach((gateId, slots) -> {
+                for (GateSlot slot : overlapping(slots, from, to)) {
+                    for (GateSlot next : slots.subSet(slot, false, probe(slot.departureTime().plus(turnaround), Long.MIN_VALUE), false)) {
+                        conflicts.add(new GateConflict(gateId, occupancy(slot), occupancy(next)));
+                    }
+                }
+            });
+            conflicts.sort(Comparator.comparing((GateConflict conflict) -> conflict.first().occupiedFrom())
+                    .thenComparing(GateConflict::gateId));
+            return conflicts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isFree(Long gateId, LocalDateTime from, LocalDateTime to) {
+        lock.readLock().lock();
+        try {
+            NavigableSet<GateSlot> slots = byGate.get(gateId);
+            return slots == null || overlapping(slots, from, to).isEmpty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Duration getTurnaround() {
+        return turnaround;
+    }
+
+    private Optional<GateSlot> firstConflict(GateSlot slot) {
+        NavigableSet<GateSlot> slots = byGate.get(slot.gateId());
+        if (slots == null) {
+            return Optional.empty();
+        }
+        // Odlot innego lotu w (d - turnaround, d + turnaround) oznacza nakładające się okna
+        NavigableSet<GateSlot> window = slots.subSet(
+                probe(slot.departureTime().minus(turnaround), Long.MAX_VALUE), false,
+                probe(slot.departureTime().plus(turnaround), Long.MIN_VALUE), false);
+        return window.stream().filter(other -> !other.flightId().equals(slot.flightId())).findFirst();
+    }
+
+    // Sloty, których okno [d - turnaround, d) przecina [from, to); brak granicy - bez ograniczenia
+    private NavigableSet<GateSlot> overlapping(NavigableSet<GateSlot> slots, LocalDateTime from, LocalDateTime to) {
+        if (slots.isEmpty()) {
+            return slots;
+        }
+        GateSlot lower = from != null ? probe(from, Long.MAX_VALUE) : null;
+        GateSlot upper = to != null ? probe(to.plus(turnaround), Long.MIN_VALUE) : null;
+        if (lower != null && upper != null) {
+            return lower.departureTime().isBefore(upper.departureTime())
+                    ? slots.subSet(lower, false, upper, false)
+                    : Collections.emptyNavigableSet();
+        }
+        if (lower != null) {
+            return slots.tailSet(lower, false);
+        }
+        return upper != null ? slots.headSet(upper, false) : slots;
+    }
+
+    private GateSlot put(Long flightId, GateSlot slot) {
+        GateSlot previous = byFlight.remove(flightId);
+        if (previous != null) {
+            NavigableSet<GateSlot> slots = byGate.get(previous.gateId());
+            slots.remove(previous);
+            if (slots.isEmpty()) {
+                byGate.remove(previous.gateId());
+            }
+        }
+        if (slot != null) {
+            add(slot);
+        }
+        return previous;
+    }
+
+    private void restore(Map<Long, GateSlot> previous) {
+        lock.writeLock().lock();
+        try {
+            previous.forEach(this::put);
+            replayAfterRebuild(() -> previous.forEach(this::put));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Wywoływane pod blokadą zapisu
+    private void apply(FlightChangedEvent event) {
+        GateSlot slot = event.type() == FlightChangedEvent.Type.DELETED ? null : GateSlot.of(event.flight());
+        put(event.flightId(), slot);
+        replayAfterRebuild(() -> put(event.flightId(), slot));
+    }
+
+    // Wywoływane pod blokadą zapisu
+    private void replayAfterRebuild(Runnable change) {
+        if (pending != null) {
+            pending.add(change);
+        }
+    }
+
+    private void add(GateSlot slot) {
+        byFlight.put(slot.flightId(), slot);
+        byGate.computeIfAbsent(slot.gateId(), gateId -> new TreeSet<>(SLOT_ORDER)).add(slot);
+    }
+
+    private GateOccupancy occupancy(GateSlot slot) {
+        return new GateOccupancy(slot.flightId(), slot.gateId(), slot.departureTime().minus(turnaround), slot.departureTime());
+    }
+
+    private static GateSlot probe(LocalDateTime departureTime, long flightId) {
+        return new GateSlot(flightId, null, departureTime);
+    }
+}
@@ -2,11 +2,13 @@ package com.gottomy2.departures.service;
 
 import com.gottomy2.departures.model.Gate;
 import com.gottomy2.departures.repository.GateRepository;
-import jakarta.transaction.Transactional;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -14,37 +16,58 @@ import java.util.Optional;
 @Service
 @RequiredArgsConstructor
 @Transactional
+@Timed("gate.service")
 public class GateService {
 
     private final GateRepository gateRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final GateResolver gateResolver;
 
+    @Transactional(readOnly = true)
     public Page<Gate> getAllGates(Pageable pageable) {
         return gateRepository.findAll(pageable);
     }
 
+    @Transactional(readOnly = true)
     public Gate getGateById(Long id) {
         return gateRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Gate not found with id: " + id));
     }
 
+    // Sama wersja wystarcza do sprawdzenia If-None-Match, bez ładowania encji
+    @Transactional(readOnly = true)
+    public Long getGateVersion(Long id) {
+        return gateRepository.findVersionById(id)
+                .orElseThrow(() -> new RuntimeException("Gate not found with id: " + id));
+    }
+
+    @Transactional(readOnly = true)
     public Optional<Gate> getGateByNumber(String gateNumber) {
         return gateRepository.findByGateNumber(gateNumber);
     }
 
     public Gate saveGate(Gate gate) {
-        return gateRepository.save(gate);
+        Gate savedGate = gateRepository.saveAndFlush(gate);
+        eventPublisher.publishEvent(GateChangedEvent.changed(savedGate));
+        return savedGate;
     }
 
     public Gate updateGate(Long id, Gate gate) {
         Gate existingGate = getGateById(id);
+        gateResolver.evict(id);
         existingGate.setGateNumber(gate.getGateNumber());
-        return gateRepository.save(existingGate);
+        // Flush podbija wersję przed publikacją zdarzenia
+        Gate savedGate = gateRepository.saveAndFlush(existingGate);
+        eventPublisher.publishEvent(GateChangedEvent.changed(savedGate));
+        return savedGate;
     }
 
     public void deleteGate(Long id) {
         if (!gateRepository.existsById(id)) {
             throw new RuntimeException("Gate not found with id: " + id);
         }
+        gateResolver.evict(id);
         gateRepository.deleteById(id);
+        eventPublisher.publishEvent(GateChangedEvent.deleted(id));
     }
 }
@@ -1,30 +1,62 @@
 package com.gottomy2.departures.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.gottomy2.departures.model.User;
 import com.gottomy2.departures.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.Collections;
 
 @Service
-@RequiredArgsConstructor
 public class JpaUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
 
+    // Krótki cache, żeby uwierzytelnione żądania nie odpytywały bazy o użytkownika
+    private final Cache<String, CachedUser> users;
+
+    public JpaUserDetailsService(UserRepository userRepository,
+                                 @Value("${security.user-cache.max-size:1000}") long maxSize,
+                                 @Value("${security.user-cache.ttl:60s}") Duration ttl,
+                                 MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, users, "users");
+    }
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("Nie znaleziono użytkownika"));
+        CachedUser user = users.get(username, name -> userRepository.findByUsername(name)
+                .map(CachedUser::of)
+                .orElse(null));
+        if (user == null) {
+            throw new UsernameNotFoundException("Nie znaleziono użytkownika");
+        }
 
+        // Zawsze nowa instancja - eraseCredentials() po logowaniu zeruje hasło w przekazanym obiekcie
         return new org.springframework.security.core.userdetails.User(
-                user.getUsername(),
-                user.getPassword(),
+                user.username(),
+                user.password(),
                 Collections.emptyList()
         );
     }
-}
\ No newline at end of file
+
+    private record CachedUser(String username, String password) {
+
+        static CachedUser of(User user) {
+            return new CachedUser(user.getUsername(), user.getPassword());
+        }
+    }
+}
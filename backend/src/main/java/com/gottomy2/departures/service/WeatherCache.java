@@ -0,0 +1,203 @@
+package com.gottomy2.departures.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.gottomy2.departures.dto.WeatherKey;
+import com.gottomy2.departures.exception.WeatherUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Jedyny cache temperatur: ograniczony rozmiarem, z TTL per wpis, negatywnym cache'owaniem
+ * odpowiedzi bez danych i odświeżaniem w tle (stale-while-revalidate). Pobranie wstrzymane albo nieudane
+ * ({@link WeatherUnavailableException}) niczego nie zapisuje, więc następne zapytanie spróbuje ponownie.
+ */
+@Slf4j
+@Component
+public class WeatherCache {
+
+    private final WeatherService weatherService;
+    private final ExecutorService executor;
+    private final Duration refreshAfter;
+    private final Cache<WeatherKey, CachedTemperature> cache;
+    private final Map<WeatherKey, CompletableFuture<Double>> inFlight = new ConcurrentHashMap<>();
+    // Kończy się informacją, czy dostawca odpowiedział; bez odpowiedzi czekający niczego nie zapisują
+    private final Map<String, CompletableFuture<Boolean>> forecastsInFlight = new ConcurrentHashMap<>();
+
+    public WeatherCache(WeatherService weatherService,
+                        @Qualifier("weatherExecutor") ExecutorService executor,
+                        MeterRegistry meterRegistry,
+                        @Value("${weather.cache.max-size:10000}") long maxSize,
+                        @Value("${weather.cache.ttl:30m}") Duration ttl,
+                        @Value("${weather.cache.refresh-after:10m}") Duration refreshAfter,
+                        @Value("${weather.cache.negative-ttl:5m}") Duration negativeTtl) {
+        this.weatherService = weatherService;
+        this.executor = executor;
+        this.refreshAfter = refreshAfter;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TemperatureExpiry(ttl, negativeTtl))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "weather");
+    }
+
+    /**
+     * Zwraca temperaturę z cache (również przeterminowaną, odświeżając ją w tle)
+     * albo rozpoczyna jej pobranie. Zwrócony future nigdy nie kończy się wyjątkiem.
+     */
+    public CompletableFuture<Double> get(WeatherKey key) {
+        CachedTemperature cached = cache.getIfPresent(key);
+        if (cached == null) {
+            return load(key);
+        }
+        if (cached.isStale(refreshAfter)) {
+            load(key);
+        }
+        return CompletableFuture.completedFuture(cached.value());
+    }
+
+    public void put(WeatherKey key, Double temperature) {
+        cache.put(key, new CachedTemperature(temperature, System.nanoTime()));
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    void cleanUp() {
+        cache.cleanUp();
+    }
+
+    private CompletableFuture<Double> load(WeatherKey key) {
+        CompletableFuture<Double> created = new CompletableFuture<>();
+        CompletableFuture<Double> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            return existing;
+        }
+
+        if (weatherService.getMode() != WeatherService.Mode.FORECAST) {
+            submit(key, created, () -> weatherService.getTemperature(key.city(), key.formattedDate()), answered -> { });
+            return created;
+        }
+
+        CompletableFuture<Boolean> forecast = new CompletableFuture<>();
+        CompletableFuture<Boolean> running = forecastsInFlight.putIfAbsent(key.city(), forecast);
+        if (running != null) {
+            // Właściciel pobrania zapisuje wszystkie dni do cache przed zakończeniem - czekamy bez zajmowania wątku
+            running.thenAccept(answered -> finish(key, created, answered ? cachedValue(key) : null, answered));
+            return created;
+        }
+        submit(key, created, () -> fetchForecast(key), answered -> {
+            forecastsInFlight.remove(key.city(), forecast);
+            forecast.complete(answered);
+        });
+        return created;
+    }
+
+    // release wywoływane po pobraniu (także nieudanym) albo po odrzuceniu zadania, z informacją, czy dostawca odpowiedział
+    private void submit(WeatherKey key, CompletableFuture<Double> created, Supplier<Double> fetch, Consumer<Boolean> release) {
+        try {
+            executor.execute(() -> {
+                Double temperature = null;
+                boolean answered = false;
+                try {
+                    temperature = fetch.get();
+                    answered = true;
+                } catch (WeatherUnavailableException e) {
+                    log.debug("Pogoda dla {} niedostępna: {}", key, e.getMessage());
+                } finally {
+                    release.accept(answered);
+                    finish(key, created, temperature, answered);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("Kolejka pobierania pogody jest pełna, pomijam {}", key);
+            release.accept(false);
+            inFlight.remove(key, created);
+            created.complete(null);
+        }
+    }
+
+    private void finish(WeatherKey key, CompletableFuture<Double> created, Double temperature, boolean answered) {
+        if (answered) {
+            store(key, temperature);
+        }
+        inFlight.remove(key, created);
+        created.complete(temperature);
+    }
+
+    private Double fetchForecast(WeatherKey key) {
+        // Prognoza mogła zostać zapisana między sprawdzeniem cache a rejestracją pobrania
+        CachedTemperature cached = cache.policy().getIfPresentQuietly(key);
+        if (cached != null && !cached.isStale(refreshAfter)) {
+            return cached.value();
+        }
+
+        // Jedna prognoza wypełnia cache dla wszystkich dni, które obejmuje
+        Map<LocalDate, Double> forecast = weatherService.getForecast(key.city());
+        forecast.forEach((date, temperature) -> put(new WeatherKey(key.city(), date), temperature));
+        return forecast.get(key.date());
+    }
+
+    private Double cachedValue(WeatherKey key) {
+        CachedTemperature cached = cache.policy().getIfPresentQuietly(key);
+        return cached != null ? cached.value() : null;
+    }
+
+    private void store(WeatherKey key, Double temperature) {
+        if (temperature == null) {
+            // Odpowiedź bez danych nie nadpisuje poprawnej (choć starej) wartości
+            CachedTemperature previous = cache.policy().getIfPresentQuietly(key);
+            if (previous != null && previous.value() != null) {
+                return;
+            }
+        }
+        put(key, temperature);
+    }
+
+    private record CachedTemperature(Double value, long loadedAtNanos) {
+
+        boolean isStale(Duration refreshAfter) {
+            return value != null && System.nanoTime() - loadedAtNanos > refreshAfter.toNanos();
+        }
+    }
+
+    private record TemperatureExpiry(Duration ttl, Duration negativeTtl)
+            implements Expiry<WeatherKey, CachedTemperature> {
+
+        @Override
+        public long expireAfterCreate(WeatherKey key, CachedTemperature value, long currentTime) {
+            return value.value() != null ? ttl.toNanos() : negativeTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(WeatherKey key, CachedTemperature value, long currentTime,
+                                      long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(WeatherKey key, CachedTemperature value, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.gottomy2.departures.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Bezpiecznik dla API pogodowego: po serii błędów przestaje wołać dostawcę na czas
+ * open-duration (po 429 - na czas z Retry-After), po czym przepuszcza jedno wywołanie próbne.
+ */
+@Slf4j
+@Component
+public class WeatherCircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final int failureThreshold;
+    private final Duration openDuration;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicBoolean probeInFlight = new AtomicBoolean();
+    private volatile long openedAtNanos;
+    private volatile Duration openFor;
+
+    public WeatherCircuitBreaker(MeterRegistry meterRegistry,
+                                 @Value("${weather.circuit-breaker.failure-threshold:5}") int failureThreshold,
+                                 @Value("${weather.circuit-breaker.open-duration:30s}") Duration openDuration) {
+        this.meterRegistry = meterRegistry;
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.openFor = openDuration;
+
+        Gauge.builder("weather.circuit.state", state, current -> current.get().ordinal())
+                .description("0 - closed, 1 - open, 2 - half-open")
+                .register(meterRegistry);
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    public boolean tryAcquirePermission() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN) {
+            if (System.nanoTime() - openedAtNanos < openFor.toNanos()) {
+                return false;
+            }
+            transition(State.OPEN, State.HALF_OPEN);
+        }
+        // W stanie półotwartym tylko jedno wywołanie próbne naraz
+        return probeInFlight.compareAndSet(false, true);
+    }
+
+    public void releasePermission() {
+        probeInFlight.set(false);
+    }
+
+    public void onSuccess() {
+        consecutiveFailures.set(0);
+        transition(State.HALF_OPEN, State.CLOSED);
+        probeInFlight.set(false);
+    }
+
+    public void onFailure() {
+        State current = state.get();
+        if (current == State.HALF_OPEN
+                || (current == State.CLOSED && consecutiveFailures.incrementAndGet() >= failureThreshold)) {
+            open(current, openDuration);
+        }
+        probeInFlight.set(false);
+    }
+
+    /**
+     * Dostawca odpowiedział 429 - limit zapytań jest wyczerpany, więc obwód otwiera się od razu, bez czekania
+     * na próg błędów, na czas z nagłówka Retry-After (bez nagłówka - open-duration).
+     */
+    public void onThrottled(Duration retryAfter) {
+        State current = state.get();
+        if (current != State.OPEN) {
+            open(current, retryAfter != null ? retryAfter : openDuration);
+        }
+        probeInFlight.set(false);
+    }
+
+    private void open(State from, Duration duration) {
+        openFor = duration;
+        openedAtNanos = System.nanoTime();
+        if (transition(from, State.OPEN)) {
+            consecutiveFailures.set(0);
+        }
+    }
+
+    private boolean transition(State from, State to) {
+        if (!state.compareAndSet(from, to)) {
+            return false;
+        }
+        log.warn("Bezpiecznik API pogodowego: {} -> {}", from, to);
+        meterRegistry.counter("weather.circuit.transitions", "from", from.name(), "to", to.name()).increment();
+        return true;
+    }
+}
@@ -0,0 +1,73 @@
+package com.gottomy2.departures.service;
+
+import com.gottomy2.departures.dto.WeatherKey;
+import com.gottomy2.departures.model.Flight;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Uzupełnia temperatury dla strony lotów: każdy (miasto, data) jest pobierany najwyżej raz,
+ * brakujące wartości równolegle, a całość mieści się w budżecie czasowym strony.
+ */
+@Slf4j
+@Component
+public class WeatherEnricher {
+
+    private final WeatherCache weatherCache;
+    private final Duration budget;
+
+    public WeatherEnricher(WeatherCache weatherCache,
+                           @Value("${weather.enrichment.budget-ms:800}") long budgetMs) {
+        this.weatherCache = weatherCache;
+        this.budget = Duration.ofMillis(budgetMs);
+    }
+
+    public void enrich(Collection<Flight> flights) {
+        Map<WeatherKey, List<Flight>> flightsByKey = flights.stream()
+                .filter(flight -> flight.getDestination() != null && flight.getDepartureTime() != null)
+                .collect(Collectors.groupingBy(WeatherKey::of, LinkedHashMap::new, Collectors.toList()));
+
+        Map<WeatherKey, CompletableFuture<Double>> pending = new HashMap<>();
+        flightsByKey.keySet().forEach(key -> pending.put(key, weatherCache.get(key)));
+
+        awaitWithinBudget(pending.values());
+
+        // Temperatury, które nie zdążyły w budżecie, trafią do cache i będą użyte przy kolejnym odczycie
+        flightsByKey.forEach((key, group) -> {
+            Double temperature = pending.get(key).getNow(null);
+            if (temperature != null) {
+                group.forEach(flight -> flight.setTemperature(temperature));
+            }
+        });
+    }
+
+    private void awaitWithinBudget(Collection<CompletableFuture<Double>> futures) {
+        if (futures.stream().allMatch(CompletableFuture::isDone)) {
+            return;
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                    .get(budget.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            long missing = futures.stream().filter(future -> !future.isDone()).count();
+            log.debug("Budżet {} ms przekroczony, {} temperatur pominiętych", budget.toMillis(), missing);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // Nie występuje - pojedyncze błędy są zamieniane na null
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.gottomy2.departures.service;
+
+import com.gottomy2.departures.dto.WeatherKey;
+import com.gottomy2.departures.repository.FlightRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Pobiera w tle temperatury dla najbliższych odlotów i zapisuje je w tabeli flights,
+ * dzięki czemu publiczny odczyt listy lotów nie odpytuje API pogodowego.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "weather.prefetch.enabled", havingValue = "true", matchIfMissing = true)
+public class WeatherPrefetchJob {
+
+    private final FlightRepository flightRepository;
+    private final WeatherCache weatherCache;
+    private final FlightReadModel flightReadModel;
+    private final ChangeSequence changeSequence;
+    private final TransactionTemplate transactionTemplate;
+    private final Timer runTimer;
+    private final Duration lookAhead;
+    private final int batchSize;
+    private final Duration batchTimeout;
+
+    public WeatherPrefetchJob(FlightRepository flightRepository,
+                              WeatherCache weatherCache,
+                              FlightReadModel flightReadModel,
+                              ChangeSequence changeSequence,
+                              TransactionTemplate transactionTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${weather.prefetch.look-ahead:48h}") Duration lookAhead,
+                              @Value("${weather.prefetch.batch-size:50}") int batchSize,
+                              @Value("${weather.prefetch.batch-timeout:10s}") Duration batchTimeout) {
+        this.flightRepository = flightRepository;
+        this.weatherCache = weatherCache;
+        this.flightReadModel = flightReadModel;
+        this.changeSequence = changeSequence;
+        this.transactionTemplate = transactionTemplate;
+        this.runTimer = meterRegistry.timer("weather.prefetch");
+        this.lookAhead = lookAhead;
+        this.batchSize = batchSize;
+        this.batchTimeout = batchTimeout;
+    }
+
+    @Scheduled(cron = "${weather.prefetch.cron:0 */15 * * * *}")
+    public void prefetch() {
+        long start = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        List<WeatherKey> keys = flightRepository.findWeatherKeysDepartingBetween(now, now.plus(lookAhead));
+
+        int updatedFlights = 0;
+        for (int from = 0; from < keys.size(); from += batchSize) {
+            updatedFlights += prefetchBatch(keys.subList(from, Math.min(from + batchSize, keys.size())));
+        }
+
+        long elapsed = System.nanoTime() - start;
+        runTimer.record(Duration.ofNanos(elapsed));
+        log.info("Prefetch pogody: {} par (miasto, data), {} lotów zaktualizowanych w {} ms",
+                keys.size(), updatedFlights, Duration.ofNanos(elapsed).toMillis());
+    }
+
+    private int prefetchBatch(List<WeatherKey> batch) {
+        Map<WeatherKey, CompletableFuture<Double>> pending = new LinkedHashMap<>();
+        batch.forEach(key -> pending.put(key, weatherCache.get(key)));
+        try {
+            CompletableFuture.allOf(pending.values().toArray(new CompletableFuture[0]))
+                    .get(batchTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Zawieszone pobranie nie blokuje joba - zapisujemy to, co już dotarło, reszta przy następnym przebiegu
+            log.warn("Prefetch pogody: nie wszystkie temperatury dotarły w {} ms", batchTimeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        } catch (ExecutionException e) {
+            // Futures z WeatherCache nie kończą się wyjątkiem
+        }
+
+        Map<WeatherKey, Double> temperatures = new LinkedHashMap<>();
+        pending.forEach((key, temperature) -> {
+            Double value = temperature.getNow(null);
+            if (value != null) {
+                temperatures.put(key, value);
+            }
+        });
+
+        Integer updated = transactionTemplate.execute(status -> flightRepository.updateTemperatures(temperatures));
+        temperatures.forEach(flightReadModel::applyTemperature);
+        if (updated != null && updated > 0) {
+            changeSequence.advance();
+        }
+        return updated != null ? updated : 0;
+    }
+}
@@ -1,39 +1,207 @@
 package com.gottomy2.departures.service;
 
-import lombok.RequiredArgsConstructor;
+import com.gottomy2.departures.exception.WeatherUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class WeatherService {
 
-    @Value("${weather.api.key}")
-    private String apiKey;
+    public enum Mode {
+        CURRENT,
+        FORECAST
+    }
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    private static final DateTimeFormatter FORECAST_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
-    @Cacheable(value = "weatherCache", key = "#city + #date")
-    public Double getTemperature(String city, String date) {
-        String apiUrl = String.format(
-                "https://api.openweathermap.org/data/2.5/weather?q=%s&units=metric&appid=%s",
-                city, apiKey
-        );
+    private final RestTemplate restTemplate;
+    private final WeatherCircuitBreaker circuitBreaker;
+    private final MeterRegistry meterRegistry;
+    private final String apiKey;
+    private final String baseUrl;
+    private final Mode mode;
+    private final Semaphore bulkhead;
+    private final Duration bulkheadWait;
+
+    public WeatherService(@Qualifier("weatherRestTemplate") RestTemplate restTemplate,
+                          WeatherCircuitBreaker circuitBreaker,
+                          MeterRegistry meterRegistry,
+                          @Value("${weather.api.key}") String apiKey,
+                          @Value("${weather.api.base-url:https://api.openweathermap.org/data/2.5}") String baseUrl,
+                          @Value("${weather.api.mode:current}") Mode mode,
+                          @Value("${weather.bulkhead.max-concurrent-calls:16}") int maxConcurrentCalls,
+                          @Value("${weather.bulkhead.max-wait:100ms}") Duration bulkheadWait) {
+        this.restTemplate = restTemplate;
+        this.circuitBreaker = circuitBreaker;
+        this.meterRegistry = meterRegistry;
+        this.apiKey = apiKey;
+        this.baseUrl = baseUrl;
+        this.mode = mode;
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
+        this.bulkheadWait = bulkheadWait;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
 
+    /**
+     * Temperatura albo null, gdy dostawca nie ma danych dla miasta.
+     *
+     * @throws WeatherUnavailableException gdy dostawca nie został zapytany albo nie odpowiedział
+     */
+    public Double getTemperature(String city, String date) {
+        Map response = call("/weather?q={city}&units=metric&appid={key}", city);
         try {
-            Map response = restTemplate.getForObject(apiUrl, Map.class);
             if (response != null && response.containsKey("main")) {
                 Map main = (Map) response.get("main");
-                return (Double) main.get("temp");
+                return ((Number) main.get("temp")).doubleValue();
             }
-        } catch (Exception e) {
-            System.err.println("Błąd podczas pobierania temperatury dla " + city + ": " + e.getMessage());
+        } catch (RuntimeException e) {
+            log.warn("Niepoprawna odpowiedź pogodowa dla {}: {}", city, e.getMessage());
         }
         return null;
     }
-}
 
+    /**
+     * Prognoza wielodniowa dla miasta - jedna temperatura na dzień (pomiar najbliższy południa).
+     *
+     * @throws WeatherUnavailableException gdy dostawca nie został zapytany albo nie odpowiedział
+     */
+    public Map<LocalDate, Double> getForecast(String city) {
+        Map response = call("/forecast?q={city}&units=metric&appid={key}", city);
+        if (response == null || !(response.get("list") instanceof List<?> entries)) {
+            return Collections.emptyMap();
+        }
+
+        try {
+            Map<LocalDate, LocalDateTime> closestToNoon = new HashMap<>();
+            Map<LocalDate, Double> forecast = new HashMap<>();
+            for (Object item : entries) {
+                Map entry = (Map) item;
+                LocalDateTime time = LocalDateTime.parse((String) entry.get("dt_txt"), FORECAST_TIME_FORMAT);
+                Number temperature = (Number) ((Map) entry.get("main")).get("temp");
+
+                LocalDate date = time.toLocalDate();
+                LocalDateTime current = closestToNoon.get(date);
+                if (current == null || distanceFromNoon(time) < distanceFromNoon(current)) {
+                    closestToNoon.put(date, time);
+                    forecast.put(date, temperature.doubleValue());
+                }
+            }
+            return forecast;
+        } catch (RuntimeException e) {
+            log.warn("Niepoprawna prognoza dla {}: {}", city, e.getMessage());
+            return Collections.emptyMap();
+        }
+    }
+
+    // Null tylko wtedy, gdy dostawca odpowiedział, że nie ma danych (4xx)
+    private Map call(String uriTemplate, String city) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            countCall("short_circuited");
+            throw new WeatherUnavailableException("Weather circuit is open, " + city + " not requested");
+        }
+        if (!acquireBulkhead()) {
+            circuitBreaker.releasePermission();
+            countCall("rejected");
+            throw new WeatherUnavailableException("Weather bulkhead is full, " + city + " not requested");
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            Map response = restTemplate.getForObject(baseUrl + uriTemplate, Map.class, city, apiKey);
+            circuitBreaker.onSuccess();
+            outcome = "success";
+            return response;
+        } catch (HttpClientErrorException.TooManyRequests e) {
+            // Wyczerpany limit zapytań to awaria z punktu widzenia bezpiecznika, nie odpowiedź "brak danych"
+            Duration retryAfter = retryAfter(e);
+            circuitBreaker.onThrottled(retryAfter);
+            outcome = "throttled";
+            log.warn("API pogodowe ogranicza zapytania, Retry-After: {}", retryAfter);
+            throw new WeatherUnavailableException("Weather request for " + city + " was throttled", e);
+        } catch (HttpClientErrorException e) {
+            // 4xx (np. nieznane miasto) nie świadczy o awarii dostawcy
+            circuitBreaker.onSuccess();
+            outcome = "client_error";
+            log.debug("API pogodowe odrzuciło zapytanie dla {}: {}", city, e.getStatusCode());
+            return null;
+        } catch (RestClientException e) {
+            circuitBreaker.onFailure();
+            log.warn("Błąd podczas pobierania pogody dla {}: {}", city, e.getMessage());
+            throw new WeatherUnavailableException("Weather request for " + city + " failed", e);
+        } catch (RuntimeException e) {
+            // Każdy inny wyjątek też zwalnia zgodę - inaczej próba w HALF_OPEN nigdy by się nie zakończyła
+            circuitBreaker.onFailure();
+            log.warn("Nieoczekiwany błąd podczas pobierania pogody dla {}", city, e);
+            throw new WeatherUnavailableException("Weather request for " + city + " failed", e);
+        } finally {
+            bulkhead.release();
+            countCall(outcome);
+            // Tag endpoint z szablonu (weather/forecast), nie z rozwiniętego URL-a z miastem i kluczem
+            sample.stop(meterRegistry.timer("weather.request",
+                    "endpoint", uriTemplate.substring(1, uriTemplate.indexOf('?')), "outcome", outcome));
+        }
+    }
+
+    // Retry-After w sekundach albo jako data HTTP; null, gdy nagłówka brak lub jest nieczytelny
+    private static Duration retryAfter(HttpClientErrorException e) {
+        String value = e.getResponseHeaders() != null ? e.getResponseHeaders().getFirst(HttpHeaders.RETRY_AFTER) : null;
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim())));
+        } catch (NumberFormatException ignored) {
+            // nie liczba - może data
+        }
+        try {
+            Duration remaining = Duration.between(Instant.now(), ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME));
+            return remaining.isNegative() ? Duration.ZERO : remaining;
+        } catch (DateTimeParseException ignored) {
+            return null;
+        }
+    }
+
+    private boolean acquireBulkhead() {
+        try {
+            return bulkhead.tryAcquire(bulkheadWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void countCall(String outcome) {
+        meterRegistry.counter("weather.calls", "outcome", outcome).increment();
+    }
+
+    private static int distanceFromNoon(LocalDateTime time) {
+        return Math.abs(time.getHour() - 12);
+    }
+}
@@ -0,0 +1,81 @@
+package com.gottomy2.specification;
+
+import com.gottomy2.departures.model.Flight;
+import com.gottomy2.departures.model.FlightStatus;
+import com.gottomy2.departures.model.FlightZone;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * Parametry filtrowania listy lotów, wiązane bezpośrednio z parametrów zapytania.
+ * Okno odlotów to [{@code departureFrom}, {@code departureTo}); {@code upcoming} zawęża je do lotów
+ * jeszcze nieodlecianych i nieodwołanych - dokładnie to, co obejmuje indeks częściowy idx_flight_upcoming.
+ */
+public record FlightFilter(String flightNumber,
+                           FlightNumberMatch flightNumberMatch,
+                           FlightStatus status,
+                           FlightZone zone,
+                           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime departureFrom,
+                           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime departureTo,
+                           Boolean upcoming) {
+
+    public FlightFilter {
+        if (flightNumberMatch == null) {
+            flightNumberMatch = FlightNumberMatch.CONTAINS;
+        }
+        // Brak parametru w zapytaniu wiąże się jako null
+        upcoming = Boolean.TRUE.equals(upcoming);
+    }
+
+    /**
+     * Dopasowanie w pamięci o tej samej semantyce co {@link FlightSpecification#filterFlights(FlightFilter)}.
+     */
+    public boolean matches(Flight flight) {
+        if (flightNumber != null && !flightNumber.isEmpty()) {
+            String number = flight.getFlightNumber() != null ? flight.getFlightNumber().toLowerCase(Locale.ROOT) : "";
+            String term = flightNumber.toLowerCase(Locale.ROOT);
+            boolean matched = flightNumberMatch == FlightNumberMatch.PREFIX ? number.startsWith(term) : number.contains(term);
+            if (!matched) {
+                return false;
+            }
+        }
+        if (status != null && status != flight.getStatus()) {
+            return false;
+        }
+        if (zone != null && zone != flight.getZone()) {
+            return false;
+        }
+        if (upcoming && flight.getStatus() == FlightStatus.ODWOŁANY) {
+            return false;
+        }
+        return departsWithin(flight.getDepartureTime(), effectiveFrom(LocalDateTime.now()));
+    }
+
+    public boolean hasDepartureWindow() {
+        return departureFrom != null || departureTo != null || upcoming;
+    }
+
+    // Dolna granica okna; przy upcoming nie wcześniej niż teraz
+    public LocalDateTime effectiveFrom(LocalDateTime now) {
+        if (!upcoming) {
+            return departureFrom;
+        }
+        return departureFrom != null && departureFrom.isAfter(now) ? departureFrom : now;
+    }
+
+    private boolean departsWithin(LocalDateTime departureTime, LocalDateTime from) {
+        if (from == null && departureTo == null) {
+            return true;
+        }
+        if (departureTime == null) {
+            return false;
+        }
+        return (from == null || !departureTime.isBefore(from)) && (departureTo == null || departureTime.isBefore(departureTo));
+    }
+
+    public static FlightFilter of(String flightNumber, FlightStatus status, FlightZone zone) {
+        return new FlightFilter(flightNumber, FlightNumberMatch.CONTAINS, status, zone, null, null, false);
+    }
+}
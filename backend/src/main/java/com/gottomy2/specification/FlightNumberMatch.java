@@ -0,0 +1,6 @@
+package com.gottomy2.specification;
+
+public enum FlightNumberMatch {
+    CONTAINS,
+    PREFIX
+}
@@ -1,29 +1,102 @@
 package com.gottomy2.specification;
 
+import com.gottomy2.departures.dto.FlightCursor;
+import com.gottomy2.departures.model.ArchivedFlight;
 import com.gottomy2.departures.model.Flight;
 import com.gottomy2.departures.model.FlightStatus;
 import com.gottomy2.departures.model.FlightZone;
 import org.springframework.data.jpa.domain.Specification;
 import jakarta.persistence.criteria.Predicate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 public class FlightSpecification {
+
+    private static final char LIKE_ESCAPE = '\\';
+
     public static Specification<Flight> filterFlights(String flightNumber, FlightStatus status, FlightZone zone) {
+        return filterFlights(FlightFilter.of(flightNumber, status, zone));
+    }
+
+    public static Specification<Flight> filterFlights(FlightFilter filter) {
+        return matching(filter);
+    }
+
+    public static Specification<ArchivedFlight> filterArchivedFlights(FlightFilter filter) {
+        return matching(filter);
+    }
+
+    // Flight i ArchivedFlight mają te same atrybuty, więc filtr jest wspólny
+    private static <T> Specification<T> matching(FlightFilter filter) {
         return (root, query, criteriaBuilder) -> {
             List<Predicate> predicates = new ArrayList<>();
 
+            String flightNumber = filter.flightNumber();
             if (flightNumber != null && !flightNumber.isEmpty()) {
-                predicates.add(criteriaBuilder.like(criteriaBuilder.lower(root.get("flightNumber")), "%" + flightNumber.toLowerCase() + "%"));
+                // lower(flight_number) LIKE 'x%' korzysta z indeksu btree, '%x%' z indeksu trigramowego
+                String escaped = escapeLike(flightNumber.toLowerCase());
+                String pattern = filter.flightNumberMatch() == FlightNumberMatch.PREFIX ? escaped + "%" : "%" + escaped + "%";
+                predicates.add(criteriaBuilder.like(criteriaBuilder.lower(root.get("flightNumber")), pattern, LIKE_ESCAPE));
+            }
+            if (filter.status() != null) {
+                predicates.add(criteriaBuilder.equal(root.get("status"), filter.status()));
+            }
+            if (filter.zone() != null) {
+                predicates.add(criteriaBuilder.equal(root.get("zone"), filter.zone()));
+            }
+            if (filter.upcoming()) {
+                // Ten sam predykat co w indeksie częściowym idx_flight_upcoming
+                predicates.add(criteriaBuilder.notEqual(root.get("status"), FlightStatus.ODWOŁANY));
             }
-            if (status != null) {
-                predicates.add(criteriaBuilder.equal(root.get("status"), status));
+            LocalDateTime from = filter.effectiveFrom(LocalDateTime.now());
+            if (from != null) {
+                predicates.add(criteriaBuilder.greaterThanOrEqualTo(root.get("departureTime"), from));
             }
-            if (zone != null) {
-                predicates.add(criteriaBuilder.equal(root.get("zone"), zone));
+            if (filter.departureTo() != null) {
+                predicates.add(criteriaBuilder.lessThan(root.get("departureTime"), filter.departureTo()));
             }
 
             return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
         };
     }
-}
\ No newline at end of file
+
+    public static Specification<Flight> idIn(Collection<Long> ids) {
+        return (root, query, criteriaBuilder) -> root.get("id").in(ids);
+    }
+
+    // Okno odlotów [from, to); brak granicy oznacza okno otwarte z tej strony
+    public static Specification<Flight> departingBetween(LocalDateTime from, LocalDateTime to) {
+        return (root, query, criteriaBuilder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (from != null) {
+                predicates.add(criteriaBuilder.greaterThanOrEqualTo(root.get("departureTime"), from));
+            }
+            if (to != null) {
+                predicates.add(criteriaBuilder.lessThan(root.get("departureTime"), to));
+            }
+            return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    public static Specification<Flight> afterCursor(FlightCursor cursor) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.or(
+                criteriaBuilder.greaterThan(root.get("departureTime"), cursor.departureTime()),
+                criteriaBuilder.and(
+                        criteriaBuilder.equal(root.get("departureTime"), cursor.departureTime()),
+                        criteriaBuilder.greaterThan(root.get("id"), cursor.id())));
+    }
+
+    public static Specification<Flight> beforeCursor(FlightCursor cursor) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.or(
+                criteriaBuilder.lessThan(root.get("departureTime"), cursor.departureTime()),
+                criteriaBuilder.and(
+                        criteriaBuilder.equal(root.get("departureTime"), cursor.departureTime()),
+                        criteriaBuilder.lessThan(root.get("id"), cursor.id())));
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
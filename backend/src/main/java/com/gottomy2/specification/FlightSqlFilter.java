@@ -0,0 +1,58 @@
+package com.gottomy2.specification;
+
+import com.gottomy2.departures.model.FlightStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Warunek WHERE z parametrami nazwanymi ({@code :name}) dla tabeli {@code flights} pod aliasem {@code f},
+ * o tej samej semantyce co {@link FlightSpecification#filterFlights(FlightFilter)} - dla zapytań bez JPA (R2DBC).
+ * Enumy są wiązane jako nazwy, tak jak zapisuje je {@code @Enumerated(EnumType.STRING)}.
+ */
+public record FlightSqlFilter(String where, Map<String, Object> parameters) {
+
+    public static FlightSqlFilter of(FlightFilter filter, LocalDateTime now) {
+        List<String> conditions = new ArrayList<>();
+        Map<String, Object> parameters = new LinkedHashMap<>();
+
+        String flightNumber = filter.flightNumber();
+        if (flightNumber != null && !flightNumber.isEmpty()) {
+            // To samo wyrażenie co w indeksach idx_flight_flight_number_prefix / _trgm
+            String escaped = escapeLike(flightNumber.toLowerCase(Locale.ROOT));
+            conditions.add("lower(f.flight_number) LIKE :flightNumber ESCAPE '\\'");
+            parameters.put("flightNumber", filter.flightNumberMatch() == FlightNumberMatch.PREFIX ? escaped + "%" : "%" + escaped + "%");
+        }
+        if (filter.status() != null) {
+            conditions.add("f.status = :status");
+            parameters.put("status", filter.status().name());
+        }
+        if (filter.zone() != null) {
+            conditions.add("f.zone = :zone");
+            parameters.put("zone", filter.zone().name());
+        }
+        if (filter.upcoming()) {
+            conditions.add("f.status <> :cancelled");
+            parameters.put("cancelled", FlightStatus.ODWOŁANY.name());
+        }
+        LocalDateTime from = filter.effectiveFrom(now);
+        if (from != null) {
+            conditions.add("f.departure_time >= :departureFrom");
+            parameters.put("departureFrom", from);
+        }
+        if (filter.departureTo() != null) {
+            conditions.add("f.departure_time < :departureTo");
+            parameters.put("departureTo", filter.departureTo());
+        }
+
+        return new FlightSqlFilter(conditions.isEmpty() ? "" : "WHERE " + String.join(" AND ", conditions), parameters);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
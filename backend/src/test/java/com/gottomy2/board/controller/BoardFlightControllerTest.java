@@ -0,0 +1,181 @@
+package com.gottomy2.board.controller;
+
+import com.gottomy2.board.service.BoardWeatherClient;
+import com.gottomy2.departures.dto.WeatherKey;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.main.web-application-type=reactive",
+        "spring.config.name=board",
+        "spring.r2dbc.url=r2dbc:h2:mem:///board;DB_CLOSE_DELAY=-1",
+        "spring.r2dbc.username=sa",
+        "spring.r2dbc.password=",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.schema-locations=classpath:board-schema.sql",
+        "weather.prefetch.enabled=false",
+        "weather.enrichment.budget-ms=300"
+})
+@AutoConfigureWebTestClient
+class BoardFlightControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @MockBean
+    private BoardWeatherClient weatherClient;
+
+    private final LocalDateTime now = LocalDateTime.now().withNano(0);
+
+    @BeforeEach
+    void setUp() {
+        databaseClient.sql("DELETE FROM flights").then()
+                .then(databaseClient.sql("DELETE FROM gates").then())
+                .then(databaseClient.sql("INSERT INTO gates (id, gate_number) VALUES (1, 'B3')").then())
+                .block();
+        insert("LO510", "Oslo", "PLANOWANY", "SCHENGEN", now.plusHours(2), 1L, 4.5);
+        insert("LO511", "Oslo", "ODWOŁANY", "SCHENGEN", now.plusHours(3), null, null);
+        insert("LH100", "Rzym", "OPÓŹNIONY", "SCHENGEN", now.plusHours(4), null, 12.0);
+        insert("LO700", "Tokio", "PLANOWANY", "NON_SCHENGEN", now.minusHours(5), null, 8.0);
+        insert("AF200", "Paryż", "ODPRAWA", "SCHENGEN", now.plusDays(1), 1L, 3.0);
+
+        when(weatherClient.getTemperature(any())).thenReturn(Mono.empty());
+    }
+
+    @Test
+    void shouldFilterWithSameParametersAsFlightController() {
+        webTestClient.get().uri("/api/flights?flightNumber=lo&flightNumberMatch=PREFIX&zone=SCHENGEN")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaTypes.HAL_JSON)
+                .expectBody()
+                .jsonPath("$._embedded.flightList[*].flightNumber").value(contains("LO510", "LO511"))
+                .jsonPath("$._embedded.flightList[0].gate.gateNumber").isEqualTo("B3")
+                .jsonPath("$._embedded.flightList[1].gate").value(nullValue())
+                .jsonPath("$.page.totalElements").isEqualTo(2);
+    }
+
+    @Test
+    void shouldListUpcomingFlightsWithinWindow() {
+        webTestClient.get().uri(uri -> uri.path("/api/flights")
+                        .queryParam("upcoming", "true")
+                        .queryParam("departureTo", now.plusHours(12).toString())
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$._embedded.flightList[*].flightNumber").value(contains("LO510", "LH100"));
+    }
+
+    @Test
+    void shouldPageSortAndLinkLikePagedResourcesAssembler() {
+        webTestClient.get().uri("/api/flights?size=2&page=1&sort=departureTime,desc")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$._embedded.flightList[*].flightNumber").value(contains("LO511", "LO510"))
+                .jsonPath("$.page.size").isEqualTo(2)
+                .jsonPath("$.page.number").isEqualTo(1)
+                .jsonPath("$.page.totalElements").isEqualTo(5)
+                .jsonPath("$.page.totalPages").isEqualTo(3)
+                .jsonPath("$._links.prev.href").value(containsString("page=0"))
+                .jsonPath("$._links.next.href").value(containsString("page=2"))
+                .jsonPath("$._links.last.href").value(containsString("sort=departureTime,desc"));
+    }
+
+    @Test
+    void shouldEnrichTemperaturesWithinBudget() {
+        when(weatherClient.getTemperature(new WeatherKey("Oslo", now.plusHours(2).toLocalDate())))
+                .thenReturn(Mono.just(-2.0));
+        when(weatherClient.getTemperature(new WeatherKey("Rzym", now.plusHours(4).toLocalDate())))
+                .thenReturn(Mono.never());
+
+        webTestClient.get().uri("/api/flights?flightNumber=LO51")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$._embedded.flightList[*].temperature").value(contains(-2.0, -2.0));
+
+        // Odpowiedź dostawcy spóźniona ponad budżet - zostaje temperatura z bazy
+        webTestClient.get().uri("/api/flights?flightNumber=LH")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$._embedded.flightList[0].temperature").isEqualTo(12.0);
+    }
+
+    @Test
+    void shouldAnswerNotModifiedUntilPageChanges() {
+        String etag = webTestClient.get().uri("/api/flights?zone=SCHENGEN")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists("ETag")
+                .returnResult(String.class)
+                .getResponseHeaders().getETag();
+
+        webTestClient.get().uri("/api/flights?zone=SCHENGEN")
+                .header("If-None-Match", etag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+
+        // Zmiana lotu z innej strefy nie dotyczy tej strony
+        databaseClient.sql("UPDATE flights SET status = 'OPÓŹNIONY', version = version + 1 WHERE flight_number = 'LO700'").then().block();
+        webTestClient.get().uri("/api/flights?zone=SCHENGEN")
+                .header("If-None-Match", etag)
+                .exchange()
+                .expectStatus().isNotModified();
+
+        databaseClient.sql("UPDATE flights SET status = 'OPÓŹNIONY', version = version + 1 WHERE flight_number = 'LO510'").then().block();
+        webTestClient.get().uri("/api/flights?zone=SCHENGEN")
+                .header("If-None-Match", etag)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().value("ETag", value -> assertNotEquals(etag, value));
+    }
+
+    @Test
+    void shouldRejectUnsupportedSortProperty() {
+        webTestClient.get().uri("/api/flights?sort=gate")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Unsupported sort property: gate");
+    }
+
+    private void insert(String flightNumber, String destination, String status, String zone,
+                        LocalDateTime departureTime, Long gateId, Double temperature) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("""
+                        INSERT INTO flights (flight_number, destination, status, zone, departure_time, gate_id, temperature)
+                        VALUES (:flightNumber, :destination, :status, :zone, :departureTime, :gateId, :temperature)""")
+                .bind("flightNumber", flightNumber)
+                .bind("destination", destination)
+                .bind("status", status)
+                .bind("zone", zone)
+                .bind("departureTime", departureTime);
+        spec = gateId != null ? spec.bind("gateId", gateId) : spec.bindNull("gateId", Long.class);
+        spec = temperature != null ? spec.bind("temperature", temperature) : spec.bindNull("temperature", Double.class);
+        spec.then().block();
+    }
+}
@@ -0,0 +1,138 @@
+package com.gottomy2.departures.config;
+
+import com.gottomy2.departures.model.Flight;
+import com.gottomy2.departures.model.FlightStatus;
+import com.gottomy2.departures.model.FlightZone;
+import com.gottomy2.departures.service.FlightService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Dwie bazy H2 w pamięci jako primary i replika: odczyty readOnly trafiają na replikę,
+ * zapisy i odczyty przy niedostępnej lub spóźnionej replice - na primary.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary",
+        "spring.datasource.replica.url=jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1",
+        "spring.datasource.replica.username=sa",
+        "spring.datasource.replica.lag-query=SELECT seconds FROM replication_lag",
+        "spring.datasource.replica.max-lag=5s",
+        "spring.datasource.replica.check-interval=1h"})
+@ActiveProfiles("test")
+class DataSourceRoutingTest {
+
+    @Autowired
+    private FlightService flightService;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void setUp() {
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+
+        // Replika z tym samym schematem co primary, ale z własnymi danymi
+        List<String> schema = primary.queryForList("SCRIPT NODATA", String.class);
+        replica.execute("DROP ALL OBJECTS");
+        schema.forEach(replica::execute);
+        replica.execute("CREATE TABLE replication_lag (seconds DOUBLE)");
+        replica.update("INSERT INTO replication_lag VALUES (0)");
+
+        primary.update("DELETE FROM flights");
+        insertFlight(replica, 1_000_001L, "REPL1");
+        replicaLagMonitor.check();
+    }
+
+    @Test
+    void shouldReadFromReplicaAndWriteToPrimary() {
+        double replicaReads = meterRegistry.counter("datasource.routing.reads", "target", "replica").count();
+
+        Flight saved = flightService.saveFlight(Flight.builder()
+                .flightNumber("PRIM1")
+                .destination("Oslo")
+                .status(FlightStatus.PLANOWANY)
+                .zone(FlightZone.SCHENGEN)
+                .departureTime(LocalDateTime.of(2025, 1, 14, 12, 0))
+                .build());
+
+        assertEquals(1, primary.queryForObject("SELECT count(*) FROM flights WHERE flight_number = 'PRIM1'", Integer.class));
+        assertEquals(0, replica.queryForObject("SELECT count(*) FROM flights WHERE flight_number = 'PRIM1'", Integer.class));
+        assertEquals(List.of("REPL1"), flightNumbers());
+        assertTrue(meterRegistry.counter("datasource.routing.reads", "target", "replica").count() > replicaReads);
+        assertNotNull(saved.getId());
+    }
+
+    @Test
+    void shouldFallBackToPrimaryWhenReplicaLags() {
+        insertFlight(primary, 1L, "PRIM2");
+        replica.update("UPDATE replication_lag SET seconds = 60");
+        replicaLagMonitor.check();
+
+        assertFalse(replicaLagMonitor.isUsable());
+        assertEquals(List.of("PRIM2"), flightNumbers());
+        assertEquals("primary", replicaLagMonitor.health().getDetails().get("readsFrom"));
+    }
+
+    @Test
+    void shouldFallBackToPrimaryWhenReplicaIsUnavailable() {
+        insertFlight(primary, 1L, "PRIM3");
+        replica.execute("DROP TABLE replication_lag");
+        replicaLagMonitor.check();
+
+        assertFalse(replicaLagMonitor.isUsable());
+        assertEquals(List.of("PRIM3"), flightNumbers());
+
+        replica.execute("CREATE TABLE replication_lag (seconds DOUBLE)");
+        replica.update("INSERT INTO replication_lag VALUES (1)");
+        replicaLagMonitor.check();
+
+        assertEquals(List.of("REPL1"), flightNumbers());
+    }
+
+    @Test
+    void shouldReportPoolMetricsPerDataSource() {
+        flightNumbers();
+
+        assertNotNull(meterRegistry.find("hikaricp.connections").tag("pool", "primary").gauge());
+        assertNotNull(meterRegistry.find("hikaricp.connections").tag("pool", "replica").gauge());
+        assertEquals(0.0, meterRegistry.get("datasource.replica.lag").gauge().value());
+    }
+
+    private List<String> flightNumbers() {
+        return flightService.getAllFlights(Pageable.unpaged()).map(Flight::getFlightNumber).getContent();
+    }
+
+    private static void insertFlight(JdbcTemplate jdbc, Long id, String flightNumber) {
+        jdbc.update("INSERT INTO flights (id, flight_number, destination, status, departure_time, zone, version) " +
+                        "VALUES (?, ?, 'Oslo', 'PLANOWANY', ?, 'SCHENGEN', 0)",
+                id, flightNumber, LocalDateTime.of(2025, 1, 14, 6, 0));
+    }
+}
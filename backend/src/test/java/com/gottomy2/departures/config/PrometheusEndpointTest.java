@@ -0,0 +1,90 @@
+package com.gottomy2.departures.config;
+
+import com.gottomy2.departures.model.User;
+import com.gottomy2.departures.repository.UserRepository;
+import com.gottomy2.departures.security.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "management.server.port=0")
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+@ActiveProfiles("test")
+class PrometheusEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @LocalServerPort
+    private int port;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @Test
+    void shouldExposeLowCardinalityMetricsForHotPaths() throws Exception {
+        when(userRepository.findByUsername("test"))
+                .thenReturn(Optional.of(User.builder().username("test").password("hash").build()));
+        String token = "Bearer " + jwtUtil.generateToken(
+                new org.springframework.security.core.userdetails.User("test", "hash", List.of()));
+
+        mockMvc.perform(get("/api/flights")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/flights/424242").header("Authorization", token)).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/gates").header("Authorization", token)).andExpect(status().isOk());
+
+        ResponseEntity<String> response = restTemplate.getForEntity(
+                "http://127.0.0.1:" + managementPort + "/actuator/prometheus", String.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        String scrape = response.getBody();
+
+        assertTrue(scrape.contains("http_server_requests_seconds_bucket{"), "endpoint latency histogram");
+        assertTrue(scrape.contains("uri=\"/api/flights/{id}\""), "route template as uri tag");
+        assertFalse(scrape.contains("424242"), "raw ids must not become tags");
+        assertTrue(scrape.contains("flight_service_seconds_count{") && scrape.contains("method=\"getFlightsFiltered\""));
+        assertTrue(scrape.contains("gate_service_seconds_count{") && scrape.contains("method=\"getAllGates\""));
+        assertTrue(scrape.contains("auth_jwt_verify_seconds_count{"));
+        assertTrue(scrape.contains("cache_gets_total{") && scrape.contains("cache=\"jwt-tokens\""));
+        assertTrue(scrape.contains("cache=\"users\"") && scrape.contains("cache=\"weather\""));
+        assertTrue(scrape.contains("hibernate_statements_total{"), "Hibernate statistics");
+        assertTrue(scrape.contains("hikaricp_connections_active{"), "connection pool");
+    }
+
+    @Test
+    void shouldNotServeActuatorOnTheApiPort() {
+        ResponseEntity<String> response = restTemplate.getForEntity(
+                "http://127.0.0.1:" + port + "/actuator/prometheus", String.class);
+
+        assertNotEquals(HttpStatus.OK, response.getStatusCode());
+    }
+}
@@ -0,0 +1,40 @@
+package com.gottomy2.departures.config;
+
+import com.gottomy2.departures.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Blokada doradcza istnieje tylko w PostgreSQL. Dwie blokady na jednym DataSource zachowują się jak dwie instancje.
+ */
+@SpringBootTest
+class SingleInstanceLockTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void secondInstanceShouldNotStartUntilTheFirstReleasesTheLock() throws Exception {
+        SingleInstanceLock first = new SingleInstanceLock(dataSource, Duration.ofMillis(100));
+        SingleInstanceLock second = new SingleInstanceLock(dataSource, Duration.ofMillis(100));
+        first.acquire();
+        try {
+            assertThrows(IllegalStateException.class, second::acquire);
+            assertEquals(Status.UP, first.health().getStatus());
+        } finally {
+            first.release();
+        }
+
+        second.acquire();
+        second.release();
+        assertEquals(Status.DOWN, second.health().getStatus());
+    }
+}
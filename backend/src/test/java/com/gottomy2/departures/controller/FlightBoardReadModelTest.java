@@ -0,0 +1,91 @@
+package com.gottomy2.departures.controller;
+
+import com.gottomy2.departures.model.Flight;
+import com.gottomy2.departures.model.FlightStatus;
+import com.gottomy2.departures.model.FlightZone;
+import com.gottomy2.departures.repository.FlightRepository;
+import com.gottomy2.departures.service.FlightReadModel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Zapytania wysyłane przez FlightTable (strona, rozmiar, opcjonalnie numer, strefa i status - bez granicy odlotu)
+ * obsługuje model odczytu, bez zapytań do bazy.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class FlightBoardReadModelTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FlightReadModel flightReadModel;
+
+    @SpyBean
+    private FlightRepository flightRepository;
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime departure = LocalDateTime.now().plusHours(2).withNano(0);
+        flightRepository.save(flight("LO281", FlightZone.SCHENGEN, departure));
+        flightRepository.save(flight("AF1147", FlightZone.NON_SCHENGEN, departure.plusHours(1)));
+        // Lot sprzed tygodnia nadal jest w tabeli flights, więc tablica bez granicy odlotu też go pokazuje
+        flightRepository.save(flight("LO279", FlightZone.SCHENGEN, departure.minusDays(7)));
+        flightReadModel.rebuild();
+        clearInvocations(flightRepository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        flightRepository.deleteAll();
+        flightReadModel.rebuild();
+    }
+
+    @Test
+    void defaultBoardRequestShouldBeServedWithoutRepositoryCall() throws Exception {
+        mockMvc.perform(get("/api/flights").param("page", "0").param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.flightList", hasSize(3)))
+                .andExpect(jsonPath("$._embedded.flightList[0].flightNumber").value("LO279"));
+
+        mockMvc.perform(get("/api/flights").param("page", "0").param("size", "10")
+                        .param("flightNumber", "LO").param("zone", "SCHENGEN").param("status", "PLANOWANY"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.flightList", hasSize(2)));
+
+        verify(flightRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+        verify(flightRepository, never()).findAll(any(Specification.class));
+    }
+
+    private static Flight flight(String number, FlightZone zone, LocalDateTime departure) {
+        return Flight.builder()
+                .flightNumber(number)
+                .destination("Oslo")
+                .status(FlightStatus.PLANOWANY)
+                .zone(zone)
+                .departureTime(departure)
+                .build();
+    }
+}
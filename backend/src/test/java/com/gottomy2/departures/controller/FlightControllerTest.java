@@ -1,10 +1,16 @@
 package com.gottomy2.departures.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gottomy2.departures.dto.CursorPage;
+import com.gottomy2.departures.dto.FlightView;
+import com.gottomy2.departures.exception.GateConflictException;
 import com.gottomy2.departures.model.*;
 import com.gottomy2.departures.repository.UserRepository;
 import com.gottomy2.departures.security.JwtUtil;
+import com.gottomy2.departures.service.FlightBatchChangedEvent;
+import com.gottomy2.departures.service.FlightChangedEvent;
 import com.gottomy2.departures.service.FlightService;
+import com.gottomy2.specification.FlightNumberMatch;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,26 +19,41 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.IntStream;
 
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
@@ -50,6 +71,9 @@ class FlightControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @MockBean
     private FlightService flightService;
 
@@ -102,7 +126,7 @@ class FlightControllerTest {
 
         Page<Flight> page = new PageImpl<>(List.of(testFlight), PageRequest.of(0, 10), 1);
 
-        when(flightService.getFlightsFiltered(any(), any(), any(), any())).thenReturn(page);
+        when(flightService.getFlightsFiltered(any(), any())).thenReturn(page);
 
         mockMvc.perform(get("/api/flights")
                         .param("page", "0")
@@ -113,6 +137,237 @@ class FlightControllerTest {
                 .andExpect(jsonPath("$._embedded.flightList[0].flightNumber").value("LO123"));
     }
 
+    @Test
+    void shouldReturnNotModifiedForUnchangedFlightList() throws Exception {
+        Page<Flight> page = new PageImpl<>(List.of(testFlight), PageRequest.of(0, 10), 1);
+
+        when(flightService.getFlightsFiltered(any(), any())).thenReturn(page);
+
+        String etag = mockMvc.perform(get("/api/flights"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/flights").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(flightService, times(1)).getFlightsFiltered(any(), any());
+    }
+
+    @Test
+    void shouldReturnNewEtagAfterFlightChange() throws Exception {
+        Page<Flight> page = new PageImpl<>(List.of(testFlight), PageRequest.of(0, 10), 1);
+
+        when(flightService.getFlightsFiltered(any(), any())).thenReturn(page);
+
+        String etag = mockMvc.perform(get("/api/flights"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        eventPublisher.publishEvent(FlightChangedEvent.deleted(999L));
+
+        mockMvc.perform(get("/api/flights").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)));
+    }
+
+    @Test
+    void shouldReturnNotModifiedForUnchangedFlight() throws Exception {
+        when(flightService.getFlightVersion(1L)).thenReturn(3L);
+
+        mockMvc.perform(get("/api/flights/1")
+                        .header("Authorization", token)
+                        .header("If-None-Match", "\"flight-1-3\""))
+                .andExpect(status().isNotModified());
+
+        verify(flightService, never()).getFlightById(1L);
+    }
+
+    @Test
+    void shouldGetFlatFlightViews() throws Exception {
+        Page<FlightView> page = new PageImpl<>(List.of(FlightView.of(testFlight)), PageRequest.of(0, 10), 1);
+
+        when(flightService.getFlightViews(any(), any())).thenReturn(page);
+
+        mockMvc.perform(get("/api/flights").param("view", "flat"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.flightViewList[0].flightNumber").value("LO123"))
+                .andExpect(jsonPath("$._embedded.flightViewList[0].gateNumber").value("G1238"));
+    }
+
+    @Test
+    void shouldGetCompactFlightsWithSelectedFields() throws Exception {
+        Page<FlightView> page = new PageImpl<>(List.of(FlightView.of(testFlight)), PageRequest.of(0, 10), 1);
+
+        when(flightService.getFlightViews(any(), any())).thenReturn(page);
+
+        mockMvc.perform(get("/api/flights")
+                        .param("view", "compact")
+                        .param("fields", "flightNumber,status,gate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "1"))
+                .andExpect(content().json("[{\"flightNumber\":\"LO123\",\"status\":\"PLANOWANY\",\"gate\":\"G1238\"}]", true));
+    }
+
+    @Test
+    void shouldRejectUnknownCompactField() throws Exception {
+        mockMvc.perform(get("/api/flights")
+                        .param("view", "compact")
+                        .param("fields", "flightNumber,password"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Unknown field: password"));
+    }
+
+    @Test
+    void shouldBindFilterParameters() throws Exception {
+        Page<Flight> page = new PageImpl<>(List.of(testFlight), PageRequest.of(0, 10), 1);
+
+        when(flightService.getFlightsFiltered(argThat(filter -> "LO1".equals(filter.flightNumber())
+                && filter.flightNumberMatch() == FlightNumberMatch.PREFIX
+                && filter.status() == FlightStatus.OPÓŹNIONY), any())).thenReturn(page);
+
+        mockMvc.perform(get("/api/flights")
+                        .param("flightNumber", "LO1")
+                        .param("flightNumberMatch", "PREFIX")
+                        .param("status", "OPÓŹNIONY")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.flightList", hasSize(1)));
+    }
+
+    @Test
+    void shouldBindDepartureWindowParameters() throws Exception {
+        Page<Flight> page = new PageImpl<>(List.of(testFlight), PageRequest.of(0, 10), 1);
+
+        when(flightService.getFlightsFiltered(argThat(filter -> filter.upcoming()
+                && LocalDateTime.of(2025, 1, 14, 6, 0).equals(filter.departureFrom())
+                && LocalDateTime.of(2025, 1, 14, 9, 0).equals(filter.departureTo())
+                && filter.zone() == FlightZone.SCHENGEN), any())).thenReturn(page);
+
+        mockMvc.perform(get("/api/flights")
+                        .param("zone", "SCHENGEN")
+                        .param("departureFrom", "2025-01-14T06:00:00")
+                        .param("departureTo", "2025-01-14T09:00:00")
+                        .param("upcoming", "true")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.flightList", hasSize(1)));
+    }
+
+    @Test
+    void shouldGetFlightsByCursorWithoutAuthentication() throws Exception {
+        CursorPage<Flight> page = new CursorPage<>(List.of(testFlight), "next-token", null, 10);
+
+        when(flightService.getFlightsByCursor(any(), eq("token"), eq(10))).thenReturn(page);
+
+        mockMvc.perform(get("/api/flights/cursor")
+                        .param("cursor", "token")
+                        .param("size", "10")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].flightNumber").value("LO123"))
+                .andExpect(jsonPath("$.nextCursor").value("next-token"));
+    }
+
+    @Test
+    void shouldStreamSnapshotAndChanges() throws Exception {
+        Page<Flight> page = new PageImpl<>(List.of(testFlight));
+
+        when(flightService.getFlightsFiltered(any(), any())).thenReturn(page);
+
+        MvcResult result = mockMvc.perform(get("/api/flights/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        Flight created = testFlight.toBuilder().id(2L).flightNumber("LO456").build();
+        eventPublisher.publishEvent(FlightChangedEvent.created(created));
+
+        String body = awaitContent(result, "LO456");
+        assertTrue(body.contains("event:snapshot"));
+        assertTrue(body.contains("event:created"));
+    }
+
+    @Test
+    void shouldStreamOnlyChangesVisibleToFilter() throws Exception {
+        when(flightService.getFlightsFiltered(any(), any())).thenReturn(new PageImpl<>(List.of(testFlight)));
+
+        MvcResult result = mockMvc.perform(get("/api/flights/stream").param("zone", "SCHENGEN"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        Flight schengen = testFlight.toBuilder().id(3L).flightNumber("LO789").build();
+        Flight nonSchengen = testFlight.toBuilder().id(4L).flightNumber("LO999").zone(FlightZone.NON_SCHENGEN).build();
+        eventPublisher.publishEvent(FlightChangedEvent.created(nonSchengen));
+        eventPublisher.publishEvent(FlightChangedEvent.updated(nonSchengen, nonSchengen.toBuilder().status(FlightStatus.OPÓŹNIONY).build()));
+        eventPublisher.publishEvent(FlightChangedEvent.deleted(nonSchengen));
+        eventPublisher.publishEvent(FlightChangedEvent.updated(schengen, schengen.toBuilder().zone(FlightZone.NON_SCHENGEN).build()));
+
+        String body = awaitContent(result, "\"id\":3");
+        assertTrue(body.contains("event:deleted"));
+        assertFalse(body.contains("LO999") || body.contains("\"id\":4"), body);
+        assertFalse(body.contains("event:created") || body.contains("event:updated"), body);
+    }
+
+    @Test
+    void shouldStreamBulkChangesAsOneBatchEvent() throws Exception {
+        when(flightService.getFlightsFiltered(any(), any())).thenReturn(new PageImpl<>(List.of(testFlight)));
+
+        MvcResult result = mockMvc.perform(get("/api/flights/stream").param("zone", "SCHENGEN"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Więcej zmian niż mieści bufor subskrybenta (64) - jedna wiadomość nie rozłącza klienta
+        List<FlightChangedEvent> changes = IntStream.range(0, 200)
+                .mapToObj(i -> FlightChangedEvent.created(testFlight.toBuilder().id(1000L + i).flightNumber("BT" + i)
+                        .zone(i == 199 ? FlightZone.NON_SCHENGEN : FlightZone.SCHENGEN).build()))
+                .toList();
+        eventPublisher.publishEvent(new FlightBatchChangedEvent(changes));
+
+        String body = awaitContent(result, "BT198");
+        assertEquals(1, body.split("event:batch", -1).length - 1, body);
+        assertFalse(body.contains("event:created") || body.contains("BT199"), body);
+        assertTrue(body.contains("\"event\":\"created\""), body);
+
+        // Subskrybent nadal podłączony
+        eventPublisher.publishEvent(FlightChangedEvent.created(testFlight.toBuilder().id(2000L).flightNumber("AFTER").build()));
+        assertTrue(awaitContent(result, "AFTER").contains("event:created"));
+    }
+
+    private static String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        String body = result.getResponse().getContentAsString();
+        while (!body.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            body = result.getResponse().getContentAsString();
+        }
+        return body;
+    }
+
+    @Test
+    void shouldGetFlightHistoryNewestFirst() throws Exception {
+        Page<FlightView> page = new PageImpl<>(List.of(FlightView.of(testFlight)), PageRequest.of(0, 20), 1);
+
+        when(flightService.getFlightHistory(argThat(filter -> "LO1".equals(filter.flightNumber())),
+                argThat(pageable -> pageable.getSort().equals(Sort.by(Sort.Direction.DESC, "departureTime")))))
+                .thenReturn(page);
+
+        mockMvc.perform(get("/api/flights/history")
+                        .param("flightNumber", "LO1")
+                        .header("Authorization", token))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$._embedded.flightViewList[0].flightNumber").value("LO123"));
+    }
+
+    @Test
+    void shouldRequireAuthenticationForFlightHistory() throws Exception {
+        mockMvc.perform(get("/api/flights/history"))
+                .andExpect(status().isForbidden());
+
+        verify(flightService, never()).getFlightHistory(any(), any());
+    }
+
     @Test
     void shouldGetFlightById() throws Exception {
         when(flightService.getFlightById(1L)).thenReturn(testFlight);
@@ -136,6 +391,19 @@ class FlightControllerTest {
                 .andExpect(jsonPath("$.flightNumber").value("LO123"));
     }
 
+    @Test
+    void shouldRejectFlightOnOccupiedGate() throws Exception {
+        when(flightService.saveFlight(any(Flight.class)))
+                .thenThrow(new GateConflictException("Gate A1 is occupied by flight 7 departing at 2025-01-14T12:00"));
+
+        mockMvc.perform(post("/api/flights")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(testFlight))
+                        .header("Authorization", token))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("Gate A1 is occupied by flight 7 departing at 2025-01-14T12:00"));
+    }
+
     @Test
     void shouldUpdateFlight() throws Exception {
         when(flightService.updateFlight(eq(1L), any(Flight.class))).thenReturn(testFlight);
@@ -148,6 +416,25 @@ class FlightControllerTest {
                 .andExpect(jsonPath("$.flightNumber").value("LO123"));
     }
 
+    @Test
+    void shouldBulkUpdateStatuses() throws Exception {
+        when(flightService.updateStatuses(argThat(request -> request.status() == FlightStatus.ODWOŁANY
+                && request.filter().zone() == FlightZone.SCHENGEN
+                && request.departureFrom() != null))).thenReturn(42);
+
+        mockMvc.perform(patch("/api/flights/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"filter": {"zone": "SCHENGEN"},
+                                 "departureFrom": "2025-01-14T06:00:00",
+                                 "departureTo": "2025-01-14T09:00:00",
+                                 "status": "ODWOŁANY"}
+                                """)
+                        .header("Authorization", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(42));
+    }
+
     @Test
     void shouldDeleteFlight() throws Exception {
         doNothing().when(flightService).deleteFlight(1L);
@@ -0,0 +1,81 @@
+package com.gottomy2.departures.controller;
+
+import com.gottomy2.departures.dto.FlightView;
+import com.gottomy2.departures.model.*;
+import com.gottomy2.departures.service.FlightService;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Porównanie rozmiaru strony 100 lotów: HAL vs {@code view=compact}. Czas serializacji mierzy
+ * {@code FlightSerializationBenchmark} w module benchmarks.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class FlightPayloadComparisonTest {
+
+    private static final Logger log = LoggerFactory.getLogger(FlightPayloadComparisonTest.class);
+    private static final int PAGE_SIZE = 100;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private FlightService flightService;
+
+    @Test
+    void compactPayloadShouldBeMuchSmallerThanHal() throws Exception {
+        List<Flight> flights = new ArrayList<>();
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            flights.add(Flight.builder()
+                    .id((long) i)
+                    .flightNumber("LO" + (100 + i))
+                    .destination("Oslo")
+                    .status(FlightStatus.PLANOWANY)
+                    .departureTime(LocalDateTime.of(2025, 1, 14, 6, 0).plusMinutes(i))
+                    .zone(FlightZone.SCHENGEN)
+                    .gate(new Gate((long) i, "B" + i))
+                    .temperature(4.5)
+                    .version(0L)
+                    .build());
+        }
+        PageRequest pageable = PageRequest.of(0, PAGE_SIZE);
+        when(flightService.getFlightsFiltered(any(), any())).thenReturn(new PageImpl<>(flights, pageable, 1000));
+        when(flightService.getFlightViews(any(), any()))
+                .thenReturn(new PageImpl<>(flights.stream().map(FlightView::of).toList(), pageable, 1000));
+
+        int hal = size(get("/api/flights").param("size", "100"));
+        int compact = size(get("/api/flights").param("size", "100").param("view", "compact"));
+        int sparse = size(get("/api/flights").param("size", "100").param("view", "compact")
+                .param("fields", "flightNumber,status,gate"));
+
+        log.info("HAL: {} B | compact: {} B | compact flightNumber,status,gate: {} B", hal, compact, sparse);
+
+        assertTrue(compact < hal, "compact payload should be smaller than HAL");
+        assertTrue(sparse * 3 < hal, "sparse fieldset should be under a third of HAL");
+    }
+
+    private int size(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(request).andReturn().getResponse().getContentAsByteArray().length;
+    }
+}
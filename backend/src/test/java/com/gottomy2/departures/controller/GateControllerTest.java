@@ -30,8 +30,11 @@ import java.util.Optional;
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -103,15 +106,30 @@ class GateControllerTest {
 
     @Test
     void shouldGetGateById() throws Exception {
+        when(gateService.getGateVersion(1L)).thenReturn(0L);
+        testGate.setVersion(0L);
         when(gateService.getGateById(1L)).thenReturn(testGate);
 
         mockMvc.perform(get("/api/gates/1")
                         .contentType(MediaType.APPLICATION_JSON)
                         .header("Authorization", token))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"gate-1-0\""))
                 .andExpect(jsonPath("$.gateNumber").value("B3"));
     }
 
+    @Test
+    void shouldAnswerNotModifiedFromVersionWithoutLoadingGate() throws Exception {
+        when(gateService.getGateVersion(1L)).thenReturn(3L);
+
+        mockMvc.perform(get("/api/gates/1")
+                        .header("If-None-Match", "\"gate-1-3\"")
+                        .header("Authorization", token))
+                .andExpect(status().isNotModified());
+
+        verify(gateService, never()).getGateById(1L);
+    }
+
     @Test
     void shouldGetGateByNumber() throws Exception {
         when(gateService.getGateByNumber("B3")).thenReturn(Optional.of(testGate));
@@ -0,0 +1,80 @@
+package com.gottomy2.departures.repository;
+
+import com.gottomy2.departures.dto.FlightView;
+import com.gottomy2.departures.model.ArchivedFlight;
+import com.gottomy2.departures.model.FlightStatus;
+import com.gottomy2.departures.model.FlightZone;
+import com.gottomy2.departures.model.Gate;
+import com.gottomy2.specification.FlightFilter;
+import com.gottomy2.specification.FlightNumberMatch;
+import com.gottomy2.specification.FlightSpecification;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class ArchivedFlightRepositoryTest {
+
+    @Autowired
+    private ArchivedFlightRepository archivedFlightRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void shouldFilterHistoryWithFlightSpecification() {
+        LocalDateTime departure = LocalDateTime.of(2025, 1, 14, 6, 0);
+        entityManager.persist(archived(1L, "LO100", departure, FlightStatus.ODPRAWA));
+        entityManager.persist(archived(2L, "LO101", departure.plusHours(1), FlightStatus.ODWOŁANY));
+        entityManager.persist(archived(3L, "AF100", departure.plusHours(2), FlightStatus.ODPRAWA));
+        entityManager.persist(archived(4L, "LO102", departure.plusDays(40), FlightStatus.ODPRAWA));
+        entityManager.flush();
+
+        Page<ArchivedFlight> page = archivedFlightRepository.findAll(FlightSpecification.filterArchivedFlights(
+                        new FlightFilter("lo", FlightNumberMatch.PREFIX, FlightStatus.ODPRAWA, null,
+                                departure.minusDays(1), departure.plusDays(1), false)),
+                PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "departureTime")));
+
+        assertEquals(List.of("LO100"), page.map(ArchivedFlight::getFlightNumber).getContent());
+    }
+
+    @Test
+    void shouldResolveGateNumberWithoutForeignKey() {
+        Gate gate = entityManager.persist(new Gate(null, "A12"));
+        LocalDateTime departure = LocalDateTime.of(2025, 1, 14, 6, 0);
+        entityManager.persist(archived(10L, "LO200", departure, FlightStatus.ODPRAWA).toBuilder().gateId(gate.getId()).build());
+        // Gate usunięty po archiwizacji - lot zostaje, bez numeru gate'a
+        entityManager.persist(archived(11L, "LO201", departure, FlightStatus.ODPRAWA).toBuilder().gateId(-1L).build());
+        entityManager.flush();
+        entityManager.clear();
+
+        List<FlightView> views = archivedFlightRepository.findAll(Sort.by("id")).stream().map(FlightView::of).toList();
+
+        assertEquals("A12", views.get(0).gateNumber());
+        assertNull(views.get(1).gateNumber());
+    }
+
+    private ArchivedFlight archived(Long id, String flightNumber, LocalDateTime departureTime, FlightStatus status) {
+        return ArchivedFlight.builder()
+                .id(id)
+                .flightNumber(flightNumber)
+                .destination("Oslo")
+                .status(status)
+                .departureTime(departureTime)
+                .zone(FlightZone.SCHENGEN)
+                .version(0L)
+                .build();
+    }
+}
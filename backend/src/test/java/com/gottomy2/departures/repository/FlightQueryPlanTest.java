@@ -0,0 +1,146 @@
+package com.gottomy2.departures.repository;
+
+import com.gottomy2.departures.model.FlightStatus;
+import com.gottomy2.departures.model.FlightZone;
+import com.gottomy2.departures.support.PostgresIntegrationTest;
+import com.gottomy2.specification.FlightFilter;
+import com.gottomy2.specification.FlightNumberMatch;
+import com.gottomy2.specification.FlightSpecification;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sprawdza na planach EXPLAIN, że zapytania, które Hibernate generuje z FlightSpecification, korzystają z indeksów
+ * przy domyślnych ustawieniach planera. SQL jest przechwytywany przez StatementInspector; wartości filtra są
+ * wstawiane jako literały, więc plan odpowiada planowi z konkretnymi parametrami (custom plan), jak w aplikacji.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.criteria.value_handling_mode=inline")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class FlightQueryPlanTest extends PostgresIntegrationTest {
+
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @TestConfiguration
+    static class StatementCapture {
+
+        @Bean
+        HibernatePropertiesCustomizer statementInspector() {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, (StatementInspector) sql -> {
+                STATEMENTS.add(sql);
+                return sql;
+            });
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private FlightRepository flightRepository;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("""
+                INSERT INTO flights (flight_number, destination, status, departure_time, zone)
+                SELECT 'XQ' || n, 'Oslo',
+                       CASE WHEN n % 10 = 0 THEN 'ODWOŁANY' WHEN n % 3 = 0 THEN 'OPÓŹNIONY' ELSE 'PLANOWANY' END,
+                       now() + (n - 10000) * interval '1 minute',
+                       CASE WHEN n % 2 = 0 THEN 'SCHENGEN' ELSE 'NON_SCHENGEN' END
+                FROM generate_series(1, 20000) AS n
+                """);
+        jdbcTemplate.execute("ANALYZE flights");
+        // Świeże wiersze czekają na liście oczekujących GIN, którą w działającej bazie opróżnia autovacuum
+        jdbcTemplate.queryForList("SELECT gin_clean_pending_list(h.inhrelid) FROM pg_inherits h "
+                + "WHERE h.inhparent = 'idx_flight_flight_number_trgm'::regclass", Long.class);
+    }
+
+    @Test
+    void prefixSearchShouldUseBtreeIndex() {
+        String plan = explainQuery(new FlightFilter("XQ123", FlightNumberMatch.PREFIX, null, null, null, null, false));
+
+        assertUsesIndex(plan, "idx_flight_flight_number_prefix");
+    }
+
+    @Test
+    void substringSearchShouldUseTrigramIndex() {
+        String plan = explainQuery(new FlightFilter("1234", FlightNumberMatch.CONTAINS, null, null, null, null, false));
+
+        assertUsesIndex(plan, "idx_flight_flight_number_trgm");
+    }
+
+    @Test
+    void cancelledListShouldUseCompositeIndex() {
+        LocalDateTime now = LocalDateTime.now();
+
+        // Odwołanych lotów idx_flight_upcoming nie obejmuje; bez indeksu złożonego zostaje BitmapAnd po status i zone
+        String plan = explainQuery(new FlightFilter(null, null, FlightStatus.ODWOŁANY, FlightZone.SCHENGEN, now, now.plusHours(3), false));
+
+        assertUsesIndex(plan, "idx_flight_zone_status_departure");
+    }
+
+    @Test
+    void boardShouldUsePartialIndex() {
+        LocalDateTime now = LocalDateTime.now();
+
+        String plan = explainQuery(new FlightFilter(null, null, null, FlightZone.SCHENGEN, null, now.plusHours(3), true));
+
+        assertUsesIndex(plan, "idx_flight_upcoming");
+    }
+
+    @Test
+    void boardWindowShouldSkipOtherPartitions() {
+        LocalDateTime now = LocalDateTime.now();
+
+        String plan = explainQuery(new FlightFilter(null, null, null, null, now, now.plusHours(3), false));
+
+        assertFalse(plan.contains("flights_default"), plan);
+        assertFalse(plan.contains("flights_" + YearMonth.now().plusMonths(3).format(DateTimeFormatter.ofPattern("yyyy_MM"))), plan);
+    }
+
+    // Na tabeli partycjonowanej plan wskazuje indeksy partycji, utworzone z indeksu tabeli flights
+    private void assertUsesIndex(String plan, String index) {
+        List<String> partitionIndexes = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits h JOIN pg_class c ON c.oid = h.inhrelid WHERE h.inhparent = ?::regclass",
+                String.class, index);
+        assertTrue(partitionIndexes.stream().anyMatch(plan::contains), plan);
+        // Puste partycje planer i tak przegląda sekwencyjnie; partycja z danymi nie może
+        plan.lines().filter(line -> line.contains("Seq Scan on flights"))
+                .forEach(line -> assertTrue(line.contains("cost=0.00..0.00 "), plan));
+    }
+
+    // Plan zapytania strony listy lotów, dokładnie w postaci wysłanej przez Hibernate
+    private String explainQuery(FlightFilter filter) {
+        Pageable pageable = PageRequest.of(0, 20);
+        STATEMENTS.clear();
+        flightRepository.findAll(FlightSpecification.filterFlights(filter), pageable);
+        String sql = STATEMENTS.get(0);
+        // Parametrami zostają tylko offset i limit strony
+        List<String> lines = jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, pageable.getOffset(), pageable.getPageSize());
+        return String.join("\n", lines);
+    }
+
+    private String explain(String sql) {
+        List<String> lines = jdbcTemplate.queryForList("EXPLAIN " + sql, String.class);
+        return String.join("\n", lines);
+    }
+}
@@ -0,0 +1,157 @@
+package com.gottomy2.departures.repository;
+
+import com.gottomy2.departures.dto.FlightCursor;
+import com.gottomy2.departures.dto.WeatherKey;
+import com.gottomy2.departures.model.Flight;
+import com.gottomy2.departures.model.FlightStatus;
+import com.gottomy2.departures.model.FlightZone;
+import com.gottomy2.specification.FlightFilter;
+import com.gottomy2.specification.FlightNumberMatch;
+import com.gottomy2.specification.FlightSpecification;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class FlightRepositoryTest {
+
+    @Autowired
+    private FlightRepository flightRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void shouldFindDistinctWeatherKeysAndUpdateTemperatures() {
+        LocalDateTime now = LocalDateTime.of(2025, 1, 14, 8, 0);
+        Flight morning = entityManager.persist(flight("LO100", "Oslo", now.plusHours(1)));
+        Flight evening = entityManager.persist(flight("LO101", "Oslo", now.plusHours(10)));
+        Flight later = entityManager.persist(flight("LO102", "Oslo", now.plusDays(3)));
+
+        List<WeatherKey> keys = flightRepository.findWeatherKeysDepartingBetween(now, now.plusHours(48));
+
+        assertEquals(List.of(new WeatherKey("Oslo", LocalDate.of(2025, 1, 14))), keys);
+
+        Map<WeatherKey, Double> temperatures = Map.of(keys.get(0), -4.0, new WeatherKey("Rzym", LocalDate.of(2025, 1, 14)), 12.0);
+        int updated = flightRepository.updateTemperatures(temperatures);
+        entityManager.clear();
+
+        assertEquals(2, updated);
+        assertEquals(-4.0, entityManager.find(Flight.class, morning.getId()).getTemperature());
+        assertEquals(-4.0, entityManager.find(Flight.class, evening.getId()).getTemperature());
+        assertEquals(morning.getVersion() + 1, entityManager.find(Flight.class, morning.getId()).getVersion());
+        assertNull(entityManager.find(Flight.class, later.getId()).getTemperature());
+        // Ta sama temperatura nie zmienia wierszy ani wersji
+        assertEquals(0, flightRepository.updateTemperatures(temperatures));
+    }
+
+    @Test
+    void shouldPageByKeysetWithTiesOnDepartureTime() {
+        LocalDateTime departure = LocalDateTime.of(2025, 1, 14, 12, 0);
+        for (int i = 0; i < 5; i++) {
+            entityManager.persist(flight("LO20" + i, "Rzym", departure.plusHours(i / 2)));
+        }
+        Sort sort = Sort.by("departureTime").and(Sort.by("id"));
+
+        List<Flight> first = flightRepository.findBy(FlightSpecification.filterFlights(null, null, null),
+                query -> query.sortBy(sort).limit(2).all());
+        List<Flight> second = flightRepository.findBy(
+                FlightSpecification.afterCursor(FlightCursor.after(first.get(1))),
+                query -> query.sortBy(sort).limit(2).all());
+        List<Flight> back = flightRepository.findBy(
+                FlightSpecification.beforeCursor(FlightCursor.before(second.get(0))),
+                query -> query.sortBy(sort.reverse()).limit(2).all());
+
+        assertEquals(List.of("LO200", "LO201"), first.stream().map(Flight::getFlightNumber).toList());
+        assertEquals(List.of("LO202", "LO203"), second.stream().map(Flight::getFlightNumber).toList());
+        assertEquals(List.of("LO201", "LO200"), back.stream().map(Flight::getFlightNumber).toList());
+    }
+
+    @Test
+    void shouldMatchFlightNumberByPrefixOrSubstring() {
+        entityManager.persist(flight("LO510", "Oslo", LocalDateTime.of(2025, 1, 14, 6, 0)));
+        entityManager.persist(flight("AF105", "Paryż", LocalDateTime.of(2025, 1, 14, 7, 0)));
+        entityManager.persist(flight("LO_99", "Rzym", LocalDateTime.of(2025, 1, 14, 8, 0)));
+
+        List<Flight> prefix = flightRepository.findAll(FlightSpecification.filterFlights(
+                new FlightFilter("lo", FlightNumberMatch.PREFIX, null, null, null, null, false)));
+        List<Flight> substring = flightRepository.findAll(FlightSpecification.filterFlights(
+                new FlightFilter("05", FlightNumberMatch.CONTAINS, null, null, null, null, false)));
+        List<Flight> literalUnderscore = flightRepository.findAll(FlightSpecification.filterFlights(
+                new FlightFilter("lo_", FlightNumberMatch.PREFIX, null, null, null, null, false)));
+
+        assertEquals(List.of("LO510", "LO_99"), prefix.stream().map(Flight::getFlightNumber).sorted().toList());
+        assertEquals(List.of("AF105"), substring.stream().map(Flight::getFlightNumber).toList());
+        assertEquals(List.of("LO_99"), literalUnderscore.stream().map(Flight::getFlightNumber).toList());
+    }
+
+    @Test
+    void shouldBulkUpdateStatusForZoneAndDepartureWindow() {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 14, 6, 0);
+        Flight inWindow = entityManager.persist(flight("LO300", "Oslo", start.plusHours(1)));
+        Flight outsideWindow = entityManager.persist(flight("LO301", "Oslo", start.plusHours(5)));
+        Flight otherZone = entityManager.persist(flight("LO302", "Oslo", start.plusHours(1)).toBuilder()
+                .zone(FlightZone.NON_SCHENGEN).build());
+
+        List<Long> ids = flightRepository.findIds(FlightSpecification.departingBetween(start, start.plusHours(3))
+                .and(FlightSpecification.filterFlights(new FlightFilter(null, null, null, FlightZone.SCHENGEN, null, null, false))));
+        // Niezapisana zmiana innego lotu w tej samej transakcji nie może przepaść
+        outsideWindow.setDestination("Bergen");
+        int updated = flightRepository.updateStatus(ids, FlightStatus.OPÓŹNIONY, null);
+
+        assertTrue(entityManager.getEntityManager().contains(outsideWindow));
+        assertFalse(entityManager.getEntityManager().contains(inWindow));
+        entityManager.clear();
+
+        assertEquals(List.of(inWindow.getId()), ids);
+        assertEquals(1, updated);
+        Flight reloaded = entityManager.find(Flight.class, inWindow.getId());
+        assertEquals(FlightStatus.OPÓŹNIONY, reloaded.getStatus());
+        assertEquals(start.plusHours(1), reloaded.getDepartureTime());
+        assertEquals(1L, reloaded.getVersion());
+        assertEquals(FlightStatus.PLANOWANY, entityManager.find(Flight.class, outsideWindow.getId()).getStatus());
+        assertEquals("Bergen", entityManager.find(Flight.class, outsideWindow.getId()).getDestination());
+        assertEquals(FlightStatus.PLANOWANY, entityManager.find(Flight.class, otherZone.getId()).getStatus());
+    }
+
+    @Test
+    void shouldFilterByDepartureWindowAndUpcoming() {
+        LocalDateTime now = LocalDateTime.now();
+        entityManager.persist(flight("LO400", "Oslo", now.minusHours(1)));
+        entityManager.persist(flight("LO401", "Oslo", now.plusHours(1)));
+        entityManager.persist(flight("LO402", "Oslo", now.plusHours(2)).toBuilder().status(FlightStatus.ODWOŁANY).build());
+        entityManager.persist(flight("LO403", "Oslo", now.plusHours(5)));
+
+        List<Flight> window = flightRepository.findAll(FlightSpecification.filterFlights(
+                new FlightFilter(null, null, null, null, now.minusHours(2), now.plusHours(3), false)), Sort.by("departureTime"));
+        List<Flight> upcoming = flightRepository.findAll(FlightSpecification.filterFlights(
+                new FlightFilter(null, null, null, null, now.minusHours(2), now.plusHours(3), true)), Sort.by("departureTime"));
+
+        assertEquals(List.of("LO400", "LO401", "LO402"), window.stream().map(Flight::getFlightNumber).toList());
+        assertEquals(List.of("LO401"), upcoming.stream().map(Flight::getFlightNumber).toList());
+    }
+
+    private Flight flight(String flightNumber, String destination, LocalDateTime departureTime) {
+        return Flight.builder()
+                .flightNumber(flightNumber)
+                .destination(destination)
+                .status(FlightStatus.PLANOWANY)
+                .departureTime(departureTime)
+                .zone(FlightZone.SCHENGEN)
+                .build();
+    }
+}
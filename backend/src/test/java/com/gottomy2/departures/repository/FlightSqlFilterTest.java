@@ -0,0 +1,115 @@
+package com.gottomy2.departures.repository;
+
+import com.gottomy2.departures.model.Flight;
+import com.gottomy2.departures.model.FlightStatus;
+import com.gottomy2.departures.model.FlightZone;
+import com.gottomy2.specification.FlightFilter;
+import com.gottomy2.specification.FlightNumberMatch;
+import com.gottomy2.specification.FlightSpecification;
+import com.gottomy2.specification.FlightSqlFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Trzy implementacje jednego filtra - FlightSpecification (JPA), FlightSqlFilter (R2DBC, tablica)
+ * i FlightFilter.matches (model odczytu, strumień SSE) - muszą wybierać dokładnie te same loty.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+class FlightSqlFilterTest {
+
+    @Autowired
+    private FlightRepository flightRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final LocalDateTime now = LocalDateTime.now().withNano(0);
+
+    @BeforeEach
+    void setUp() {
+        entityManager.persist(flight("LO510", FlightStatus.PLANOWANY, FlightZone.SCHENGEN, now.minusDays(2)));
+        entityManager.persist(flight("LO_12", FlightStatus.OPÓŹNIONY, FlightZone.SCHENGEN, now.plusHours(3)));
+        entityManager.persist(flight("LOX12", FlightStatus.ODPRAWA, FlightZone.NON_SCHENGEN, now.plusHours(5)));
+        entityManager.persist(flight("AF%05", FlightStatus.ODWOŁANY, FlightZone.NON_SCHENGEN, now.plusDays(1)));
+        entityManager.persist(flight("BA150", FlightStatus.PLANOWANY, FlightZone.NON_SCHENGEN, now.plusDays(3)));
+        entityManager.persist(flight("lh051", FlightStatus.ODWOŁANY, FlightZone.SCHENGEN, now.minusHours(6)));
+        entityManager.flush();
+    }
+
+    @Test
+    void specificationSqlFilterAndMatchesShouldSelectSameFlights() {
+        List<FlightFilter> filters = List.of(
+                FlightFilter.of(null, null, null),
+                FlightFilter.of("05", null, null),
+                FlightFilter.of("%0", null, null),
+                new FlightFilter("lo", FlightNumberMatch.PREFIX, null, null, null, null, false),
+                new FlightFilter("lo_", FlightNumberMatch.PREFIX, null, null, null, null, false),
+                FlightFilter.of(null, FlightStatus.ODWOŁANY, null),
+                FlightFilter.of(null, null, FlightZone.NON_SCHENGEN),
+                new FlightFilter(null, null, null, null, null, null, true),
+                new FlightFilter(null, null, null, FlightZone.SCHENGEN, null, null, true),
+                new FlightFilter(null, null, null, null, now.minusDays(1), now.plusDays(1), false),
+                new FlightFilter(null, null, null, null, now.plusHours(4), null, true),
+                new FlightFilter(null, null, null, null, null, now, false),
+                new FlightFilter("1", FlightNumberMatch.CONTAINS, FlightStatus.PLANOWANY, FlightZone.NON_SCHENGEN,
+                        now.minusDays(5), now.plusDays(5), true));
+
+        for (FlightFilter filter : filters) {
+            List<Long> expected = flightRepository.findAll(FlightSpecification.filterFlights(filter)).stream()
+                    .map(Flight::getId)
+                    .sorted()
+                    .toList();
+
+            FlightSqlFilter sqlFilter = FlightSqlFilter.of(filter, LocalDateTime.now());
+            List<Long> actual = jdbcTemplate.queryForList(
+                    "SELECT f.id FROM flights f " + sqlFilter.where() + " ORDER BY f.id",
+                    sqlFilter.parameters(), Long.class);
+
+            List<Long> matched = flightRepository.findAll().stream()
+                    .filter(filter::matches)
+                    .map(Flight::getId)
+                    .sorted()
+                    .toList();
+
+            assertEquals(expected, actual, "FlightSqlFilter: " + filter);
+            assertEquals(expected, matched, "FlightFilter.matches: " + filter);
+        }
+    }
+
+    @Test
+    void shouldBindEnumsByName() {
+        FlightSqlFilter sqlFilter = FlightSqlFilter.of(
+                new FlightFilter(null, null, FlightStatus.OPÓŹNIONY, FlightZone.SCHENGEN, null, null, true), now);
+
+        assertEquals("OPÓŹNIONY", sqlFilter.parameters().get("status"));
+        assertEquals("SCHENGEN", sqlFilter.parameters().get("zone"));
+        assertEquals("ODWOŁANY", sqlFilter.parameters().get("cancelled"));
+        assertEquals(now, sqlFilter.parameters().get("departureFrom"));
+        assertFalse(FlightSqlFilter.of(FlightFilter.of(null, null, null), now).where().contains("WHERE"));
+    }
+
+    private Flight flight(String flightNumber, FlightStatus status, FlightZone zone, LocalDateTime departureTime) {
+        return Flight.builder()
+                .flightNumber(flightNumber)
+                .destination("Oslo")
+                .status(status)
+                .departureTime(departureTime)
+                .zone(zone)
+                .build();
+    }
+}
@@ -0,0 +1,95 @@
+package com.gottomy2.departures.repository;
+
+import com.gottomy2.departures.dto.FlightView;
+import com.gottomy2.departures.model.Flight;
+import com.gottomy2.departures.model.FlightStatus;
+import com.gottomy2.departures.model.FlightZone;
+import com.gottomy2.departures.model.Gate;
+import com.gottomy2.specification.FlightFilter;
+import com.gottomy2.specification.FlightSpecification;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class FlightStatementCountTest {
+
+    @Autowired
+    private FlightRepository flightRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime departure = LocalDateTime.of(2025, 1, 14, 6, 0);
+        for (int i = 0; i < 10; i++) {
+            Gate gate = entityManager.persist(new Gate("C" + i));
+            entityManager.persist(Flight.builder()
+                    .flightNumber("LO40" + i)
+                    .destination("Oslo")
+                    .status(FlightStatus.PLANOWANY)
+                    .departureTime(departure.plusMinutes(i))
+                    .zone(FlightZone.SCHENGEN)
+                    .gate(gate)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void shouldReadFlatPageInOneStatementPlusCount() {
+        Page<FlightView> page = flightRepository.findViews(
+                FlightSpecification.filterFlights(FlightFilter.of(null, null, null)),
+                PageRequest.of(0, 5, Sort.by("departureTime")));
+
+        assertEquals(5, page.getContent().size());
+        assertEquals("C0", page.getContent().get(0).gateNumber());
+        assertEquals(10, page.getTotalElements());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void shouldSkipCountOnLastPartialPage() {
+        Page<FlightView> page = flightRepository.findViews(
+                FlightSpecification.filterFlights(FlightFilter.of(null, null, null)),
+                PageRequest.of(0, 20));
+
+        assertEquals(10, page.getTotalElements());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void shouldFetchGatesWithFlightsWithoutExtraSelects() {
+        Page<Flight> page = flightRepository.findAll(
+                FlightSpecification.filterFlights(FlightFilter.of(null, null, null)),
+                PageRequest.of(0, 5, Sort.by("departureTime")));
+
+        assertEquals("C0", page.getContent().get(0).getGate().getGateNumber());
+        // Strona + COUNT, bez osobnego SELECT na gate każdego wiersza
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,118 @@
+package com.gottomy2.departures.security;
+
+import com.gottomy2.departures.model.User;
+import com.gottomy2.departures.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Cache użytkowników wyłączony (TTL 0), żeby mock repozytorium widział każde wyszukanie użytkownika
+@SpringBootTest(properties = "security.user-cache.ttl=0s")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AuthControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @Test
+    void shouldLoginWithSingleUserLookup() throws Exception {
+        User user = User.builder()
+                .username("login-test")
+                .password(new BCryptPasswordEncoder().encode("secret"))
+                .build();
+        when(userRepository.findByUsername("login-test")).thenReturn(Optional.of(user));
+
+        MvcResult result = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"login-test\",\"password\":\"secret\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").isNotEmpty());
+
+        verify(userRepository, times(1)).findByUsername("login-test");
+    }
+
+    @Test
+    void shouldRejectWrongPassword() throws Exception {
+        User user = User.builder()
+                .username("login-wrong")
+                .password(new BCryptPasswordEncoder().encode("secret"))
+                .build();
+        when(userRepository.findByUsername("login-wrong")).thenReturn(Optional.of(user));
+
+        MvcResult result = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"login-wrong\",\"password\":\"nope\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void shouldReturnTooManyRequestsWhenExecutorIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<>(1));
+        try {
+            executor.execute(() -> awaitQuietly(release));
+            executor.execute(() -> awaitQuietly(release));
+
+            AuthController controller = new AuthController(mock(AuthenticationManager.class), new JwtUtil(10, new SimpleMeterRegistry()),
+                    executor, new SimpleMeterRegistry(), Duration.ofSeconds(2));
+
+            ResponseEntity<Map<String, String>> response =
+                    controller.login(Map.of("username", "a", "password", "b")).join();
+
+            assertEquals(429, response.getStatusCode().value());
+            assertEquals("2", response.getHeaders().getFirst("Retry-After"));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
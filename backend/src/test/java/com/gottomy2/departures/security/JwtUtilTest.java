@@ -0,0 +1,41 @@
+package com.gottomy2.departures.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JwtUtilTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final JwtUtil jwtUtil = new JwtUtil(100, meterRegistry);
+
+    @Test
+    void shouldVerifyTokenOnceAndServeFromCache() {
+        String token = jwtUtil.generateToken(new User("admin", "secret", List.of()));
+
+        JwtUtil.VerifiedToken first = jwtUtil.verify(token).orElseThrow();
+        JwtUtil.VerifiedToken second = jwtUtil.verify(token).orElseThrow();
+
+        assertEquals("admin", first.username());
+        assertSame(first, second);
+        assertEquals(1, meterRegistry.get("auth.jwt.verify").tags("source", "parsed", "outcome", "valid").timer().count());
+        assertEquals(1, meterRegistry.get("auth.jwt.verify").tags("source", "cached", "outcome", "valid").timer().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tags("cache", "jwt-tokens", "result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void shouldRejectTamperedToken() {
+        String token = jwtUtil.generateToken(new User("admin", "secret", List.of()));
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertTrue(jwtUtil.verify(tampered).isEmpty());
+        assertTrue(jwtUtil.verify("not-a-jwt").isEmpty());
+    }
+}
@@ -0,0 +1,36 @@
+package com.gottomy2.departures.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class ChangeSequenceTest {
+
+    private final ChangeSequence changeSequence = new ChangeSequence(Duration.ofMillis(50));
+
+    @Test
+    void shouldExpireTimeDependentEtagsWithoutChanges() throws InterruptedException {
+        String etag = changeSequence.etag("flights");
+        String upcoming = changeSequence.etag("flights", true);
+        assertNotEquals(etag, upcoming);
+
+        Thread.sleep(60);
+
+        assertEquals(etag, changeSequence.etag("flights", false));
+        assertNotEquals(upcoming, changeSequence.etag("flights", true));
+    }
+
+    @Test
+    void shouldAdvanceBothKindsOnChange() {
+        String etag = changeSequence.etag("flights");
+        String upcoming = changeSequence.etag("flights", true);
+
+        changeSequence.advance();
+
+        assertNotEquals(etag, changeSequence.etag("flights"));
+        assertNotEquals(upcoming, changeSequence.etag("flights", true));
+    }
+}
@@ -0,0 +1,92 @@
+package com.gottomy2.departures.service;
+
+import com.gottomy2.departures.dto.ImportReport;
+import com.gottomy2.departures.model.Flight;
+import com.gottomy2.departures.model.FlightStatus;
+import com.gottomy2.departures.repository.FlightRepository;
+import com.gottomy2.departures.repository.GateRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class FlightImportServiceTest {
+
+    @Autowired
+    private FlightImportService flightImportService;
+
+    @Autowired
+    private FlightRepository flightRepository;
+
+    @Autowired
+    private GateRepository gateRepository;
+
+    @Autowired
+    private GateResolver gateResolver;
+
+    @AfterEach
+    void tearDown() {
+        flightRepository.deleteAll();
+        gateRepository.findAll().forEach(gate -> gateResolver.evict(gate.getId()));
+        gateRepository.deleteAll();
+    }
+
+    @Test
+    void shouldImportCsvAndReportBadRows() throws Exception {
+        String csv = """
+                flight_number,destination,status,departure_time,zone,gate_number,temperature
+                LO510,Nowy Jork,PLANOWANY,2025-01-14 13:20:44,SCHENGEN,B3,4.5
+                AF672,Oslo,NIEZNANY,2025-01-14 06:06:44,NON_SCHENGEN,G4,29.4
+                LO804,Madryt,ODPRAWA,2025-01-14 05:09:44,NON_SCHENGEN,B3,
+                ,Londyn,OPÓŹNIONY,2025-01-14 07:25:44,NON_SCHENGEN,E10,30.4
+                LO805,"Rzym, Fiumicino",ODPRAWA,2025-01-14 05:19:44,SCHENGEN,,
+                """;
+
+        ImportReport report = flightImportService.importFlights(stream(csv), FlightImportService.Format.CSV);
+
+        assertEquals(3, report.imported());
+        assertEquals(2, report.failed());
+        assertEquals(List.of(3L, 5L), report.errors().stream().map(ImportReport.RowError::line).toList());
+
+        List<Flight> flights = flightRepository.findAll();
+        assertEquals(3, flights.size());
+        assertTrue(flights.stream().anyMatch(flight -> "Rzym, Fiumicino".equals(flight.getDestination())));
+        // Gate B3 utworzony raz i współdzielony
+        assertEquals(1, gateRepository.findAll().size());
+    }
+
+    @Test
+    void shouldImportNdjsonAcrossBatchesAndIsolateDatabaseErrors() throws Exception {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 120; i++) {
+            // Za długi numer lotu przechodzi walidację, ale odrzuca go baza
+            String number = i == 70 ? "LO" + "X".repeat(300) : "LO" + i;
+            ndjson.append("{\"flightNumber\":\"").append(number)
+                    .append("\",\"destination\":\"Oslo\",\"status\":\"PLANOWANY\",")
+                    .append("\"departureTime\":\"2025-01-14T10:00:00\",\"zone\":\"SCHENGEN\",\"gate\":{\"gateNumber\":\"A1\"}}\n");
+        }
+        ndjson.append("{not json}\n");
+
+        ImportReport report = flightImportService.importFlights(stream(ndjson.toString()), FlightImportService.Format.NDJSON);
+
+        assertEquals(119, report.imported());
+        assertEquals(2, report.failed());
+        assertEquals(71L, report.errors().get(0).line());
+        assertEquals(119, flightRepository.count());
+        assertEquals(FlightStatus.PLANOWANY, flightRepository.findAll().get(0).getStatus());
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,118 @@
+package com.gottomy2.departures.service;
+
+import com.gottomy2.departures.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Partycje istnieją tylko w migracjach PostgreSQL, więc job jest sprawdzany na prawdziwej bazie.
+ */
+@SpringBootTest
+class FlightPartitionJobTest extends PostgresIntegrationTest {
+
+    // Ten sam klucz co w FlightPartitionJob
+    private static final long LOCK_KEY = 0x666c6967687473L;
+
+    @Autowired
+    private FlightPartitionJob flightPartitionJob;
+
+    @Autowired
+    private FlightReadModel flightReadModel;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void shouldCreateFuturePartitionsAndArchiveDepartedMonths() {
+        YearMonth departed = YearMonth.now().minusMonths(6);
+        YearMonth distant = YearMonth.now().plusMonths(8);
+        insertFlight("LO700", departed.atDay(10).atTime(8, 0));
+        insertFlight("LO701", distant.atDay(10).atTime(8, 0));
+        insertFlight("LO702", LocalDateTime.now().plusDays(1));
+        // Poza zakresem przygotowanych partycji - oba trafiają do partycji domyślnej
+        assertEquals("flights_default", partitionOf("flights", "LO700"));
+        assertEquals("flights_default", partitionOf("flights", "LO701"));
+        flightReadModel.rebuild();
+        Long archivedId = idOf("LO700");
+        Long currentId = idOf("LO702");
+
+        flightPartitionJob.maintain();
+
+        assertEquals("flights_archive_" + suffix(departed), partitionOf("flights_archive", "LO700"));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM flights WHERE flight_number = 'LO700'", Integer.class));
+        // Model odczytu traci ten sam miesiąc co tabela
+        assertEquals(Optional.empty(), flightReadModel.findVersion(archivedId));
+        assertTrue(flightReadModel.findVersion(currentId).isPresent());
+        assertEquals("flights_" + suffix(distant), partitionOf("flights", "LO701"));
+        assertEquals("flights_" + suffix(YearMonth.now()), partitionOf("flights", "LO702"));
+        assertTrue(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class,
+                "flights_" + suffix(YearMonth.now().plusMonths(3))));
+        // Archiwum nie trzyma klucza obcego do gates
+        assertEquals(List.of(), jdbcTemplate.queryForList("SELECT conname FROM pg_constraint WHERE conrelid = ?::regclass AND contype = 'f'",
+                String.class, "flights_archive_" + suffix(departed)));
+    }
+
+    @Test
+    void changelogShouldPartitionFlightsAndArchive() {
+        assertEquals(List.of("flights", "flights_archive"), jdbcTemplate.queryForList(
+                "SELECT relname::text FROM pg_class WHERE relkind = 'p' AND relname IN ('flights', 'flights_archive') ORDER BY relname",
+                String.class));
+        assertEquals("flights", jdbcTemplate.queryForObject(
+                "SELECT inhparent::regclass::text FROM pg_inherits WHERE inhrelid = 'flights_default'::regclass", String.class));
+        assertEquals(List.of("fk_flights_gates"), jdbcTemplate.queryForList(
+                "SELECT conname::text FROM pg_constraint WHERE conrelid = 'flights'::regclass AND contype = 'f'", String.class));
+    }
+
+    @Test
+    void shouldSkipPartitionChangesWhileAnotherInstanceHoldsTheLock() throws Exception {
+        YearMonth distant = YearMonth.now().plusMonths(10);
+        insertFlight("LO710", distant.atDay(10).atTime(8, 0));
+
+        try (Connection other = dataSource.getConnection()) {
+            other.setAutoCommit(false);
+            try (Statement statement = other.createStatement()) {
+                statement.execute("SELECT pg_advisory_xact_lock(" + LOCK_KEY + ")");
+            }
+            flightPartitionJob.maintain();
+            assertEquals("flights_default", partitionOf("flights", "LO710"));
+            other.rollback();
+        }
+
+        flightPartitionJob.maintain();
+        assertEquals("flights_" + suffix(distant), partitionOf("flights", "LO710"));
+    }
+
+    private void insertFlight(String flightNumber, LocalDateTime departureTime) {
+        jdbcTemplate.update("INSERT INTO flights (flight_number, destination, status, departure_time, zone) "
+                + "VALUES (?, 'Oslo', 'PLANOWANY', ?, 'SCHENGEN')", flightNumber, departureTime);
+    }
+
+    private Long idOf(String flightNumber) {
+        return jdbcTemplate.queryForObject("SELECT id FROM flights WHERE flight_number = ?", Long.class, flightNumber);
+    }
+
+    private String partitionOf(String table, String flightNumber) {
+        return jdbcTemplate.queryForObject("SELECT tableoid::regclass::text FROM " + table + " WHERE flight_number = ?",
+                String.class, flightNumber);
+    }
+
+    private static String suffix(YearMonth month) {
+        return String.format("%d_%02d", month.getYear(), month.getMonthValue());
+    }
+}
@@ -0,0 +1,161 @@
+package com.gottomy2.departures.service;
+
+import com.gottomy2.departures.dto.WeatherKey;
+import com.gottomy2.departures.model.Flight;
+import com.gottomy2.departures.model.FlightStatus;
+import com.gottomy2.departures.model.FlightZone;
+import com.gottomy2.departures.model.Gate;
+import com.gottomy2.departures.repository.FlightRepository;
+import com.gottomy2.specification.FlightFilter;
+import com.gottomy2.specification.FlightNumberMatch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FlightReadModelTest {
+
+    private static final LocalDateTime MORNING = LocalDate.now().plusDays(1).atTime(6, 0);
+
+    private final FlightRepository flightRepository = mock(FlightRepository.class);
+
+    private final FlightReadModel readModel = new FlightReadModel(flightRepository, true);
+
+    @BeforeEach
+    void setUp() {
+        when(flightRepository.findAllWithGate()).thenReturn(List.of(
+                flight(1L, "LO510", FlightStatus.PLANOWANY, FlightZone.SCHENGEN, MORNING.plusHours(3)),
+                flight(2L, "LO511", FlightStatus.OPÓŹNIONY, FlightZone.SCHENGEN, MORNING.plusHours(1)),
+                flight(3L, "AF672", FlightStatus.PLANOWANY, FlightZone.NON_SCHENGEN, MORNING.plusHours(2)),
+                flight(4L, "KL105", FlightStatus.ODWOŁANY, FlightZone.SCHENGEN, MORNING)));
+        readModel.rebuild();
+    }
+
+    @Test
+    void shouldFilterByIndexesInDepartureOrder() {
+        Page<Flight> page = readModel.find(new FlightFilter(null, null, null, FlightZone.SCHENGEN, null, null, false), PageRequest.of(0, 2));
+
+        assertEquals(List.of("KL105", "LO511"), numbers(page));
+        assertEquals(3, page.getTotalElements());
+    }
+
+    @Test
+    void shouldMatchPrefixAndSubstringLikeTheSpecification() {
+        assertEquals(List.of("LO511", "LO510"),
+                numbers(readModel.find(new FlightFilter("lo", FlightNumberMatch.PREFIX, null, null, null, null, false), PageRequest.of(0, 10))));
+        assertEquals(List.of("KL105", "LO510"),
+                numbers(readModel.find(new FlightFilter("10", FlightNumberMatch.CONTAINS, null, null, null, null, false), PageRequest.of(0, 10))));
+        assertEquals(List.of("AF672", "LO510"),
+                numbers(readModel.find(FlightFilter.of(null, FlightStatus.PLANOWANY, null),
+                        PageRequest.of(0, 10, Sort.by("flightNumber")))));
+    }
+
+    @Test
+    void shouldApplyCommittedChanges() {
+        Flight delayed = flight(1L, "LO510", FlightStatus.OPÓŹNIONY, FlightZone.SCHENGEN, MORNING.plusHours(5));
+        readModel.onFlightChanged(FlightChangedEvent.updated(null, delayed));
+        readModel.onFlightChanged(FlightChangedEvent.deleted(2L));
+        readModel.onFlightChanged(FlightChangedEvent.created(
+                flight(5L, "LO999", FlightStatus.OPÓŹNIONY, FlightZone.NON_SCHENGEN, MORNING.plusHours(4))));
+
+        Page<Flight> page = readModel.find(FlightFilter.of(null, FlightStatus.OPÓŹNIONY, null), PageRequest.of(0, 10));
+
+        assertEquals(List.of("LO999", "LO510"), numbers(page));
+    }
+
+    @Test
+    void shouldReturnCopiesAndApplyPrefetchedTemperatures() {
+        readModel.applyTemperature(new WeatherKey("Oslo", MORNING.toLocalDate()), -7.0);
+
+        Flight flight = readModel.find(FlightFilter.of("AF672", null, null), PageRequest.of(0, 1)).getContent().get(0);
+        flight.setTemperature(30.0);
+
+        assertEquals(-7.0, readModel.find(FlightFilter.of("AF672", null, null), PageRequest.of(0, 1))
+                .getContent().get(0).getTemperature());
+    }
+
+    @Test
+    void shouldFilterByDepartureWindowLikeTheSpecification() {
+        Page<Flight> window = readModel.find(new FlightFilter(null, null, null, FlightZone.SCHENGEN,
+                MORNING, MORNING.plusHours(3), false), PageRequest.of(0, 10));
+
+        assertEquals(List.of("KL105", "LO511"), numbers(window));
+
+        LocalDateTime now = LocalDateTime.now();
+        readModel.onFlightChanged(FlightChangedEvent.created(
+                flight(5L, "LO600", FlightStatus.PLANOWANY, FlightZone.SCHENGEN, now.plusHours(1))));
+        readModel.onFlightChanged(FlightChangedEvent.created(
+                flight(6L, "LO601", FlightStatus.ODWOŁANY, FlightZone.SCHENGEN, now.plusHours(2))));
+
+        Page<Flight> upcoming = readModel.find(new FlightFilter(null, null, null, null, null, now.plusHours(3), true), PageRequest.of(0, 10));
+
+        assertEquals(List.of("LO600"), numbers(upcoming));
+    }
+
+    @Test
+    void shouldKeepChangesCommittedDuringRebuild() {
+        Flight stale = flight(1L, "LO510", FlightStatus.PLANOWANY, FlightZone.SCHENGEN, MORNING.plusHours(3));
+        Flight delayed = flight(1L, "LO510", FlightStatus.OPÓŹNIONY, FlightZone.SCHENGEN, MORNING.plusHours(3));
+        delayed.setVersion(2L);
+        // Zmiana zatwierdzona po odczycie z bazy, a przed podmianą indeksów
+        when(flightRepository.findAllWithGate()).thenAnswer(invocation -> {
+            readModel.onFlightChanged(FlightChangedEvent.updated(stale, delayed));
+            readModel.onFlightChanged(FlightChangedEvent.deleted(3L));
+            stale.setVersion(1L);
+            return List.of(stale, flight(3L, "AF672", FlightStatus.PLANOWANY, FlightZone.NON_SCHENGEN, MORNING.plusHours(2)));
+        });
+
+        readModel.rebuild();
+
+        assertEquals(List.of("LO510"), numbers(readModel.find(FlightFilter.of(null, FlightStatus.OPÓŹNIONY, null), PageRequest.of(0, 10))));
+        assertEquals(Optional.empty(), readModel.findVersion(3L));
+    }
+
+    @Test
+    void shouldHoldDepartedFlightsUntilTheirMonthIsArchived() {
+        LocalDateTime departed = LocalDateTime.now().minusDays(3);
+        readModel.onFlightChanged(FlightChangedEvent.updated(null,
+                flight(1L, "LO510", FlightStatus.PLANOWANY, FlightZone.SCHENGEN, departed)));
+
+        // Filtr bez dolnej granicy (domyślne zapytanie tablicy) widzi to samo co tabela flights
+        assertEquals(List.of("LO510", "KL105", "LO511", "AF672"),
+                numbers(readModel.find(FlightFilter.of(null, null, null), PageRequest.of(0, 10))));
+
+        readModel.evictArchived(departed.minusHours(1), departed.plusHours(1));
+
+        assertEquals(Optional.empty(), readModel.findVersion(1L));
+        assertEquals(3, readModel.find(FlightFilter.of(null, null, null), PageRequest.of(0, 10)).getTotalElements());
+    }
+
+    @Test
+    void shouldNotServeReadsWhenDisabled() {
+        assertFalse(new FlightReadModel(flightRepository, false).isReady());
+    }
+
+    private static List<String> numbers(Page<Flight> page) {
+        return page.getContent().stream().map(Flight::getFlightNumber).toList();
+    }
+
+    private static Flight flight(Long id, String number, FlightStatus status, FlightZone zone, LocalDateTime departure) {
+        return Flight.builder()
+                .id(id)
+                .flightNumber(number)
+                .destination("Oslo")
+                .status(status)
+                .zone(zone)
+                .departureTime(departure)
+                .gate(new Gate(1L, "B3"))
+                .build();
+    }
+}
@@ -0,0 +1,141 @@
+package com.gottomy2.departures.service;
+
+import com.gottomy2.departures.dto.BulkStatusUpdate;
+import com.gottomy2.departures.dto.GateOccupancy;
+import com.gottomy2.departures.exception.GateConflictException;
+import com.gottomy2.departures.model.Flight;
+import com.gottomy2.departures.model.FlightStatus;
+import com.gottomy2.departures.model.FlightZone;
+import com.gottomy2.departures.model.Gate;
+import com.gottomy2.departures.repository.FlightRepository;
+import com.gottomy2.departures.repository.GateRepository;
+import com.gottomy2.specification.FlightFilter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "flights.bulk.chunk-size=2")
+@ActiveProfiles("test")
+@RecordApplicationEvents
+class FlightServiceBulkUpdateTest {
+
+    @Autowired
+    private FlightService flightService;
+
+    @Autowired
+    private FlightRepository flightRepository;
+
+    @Autowired
+    private GateRepository gateRepository;
+
+    @Autowired
+    private GateSchedule gateSchedule;
+
+    @Autowired
+    private ChangeSequence changeSequence;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    private final LocalDateTime departure = LocalDateTime.now().plusDays(1).withNano(0);
+
+    @AfterEach
+    void tearDown() {
+        flightRepository.deleteAll();
+        gateSchedule.rebuild();
+    }
+
+    @Test
+    void shouldUpdateInChunksAndPublishOneEventPerChunk() {
+        List<Flight> flights = IntStream.range(0, 5).mapToObj(i -> save("LO60" + i, FlightZone.SCHENGEN)).toList();
+        Flight other = save("LO699", FlightZone.NON_SCHENGEN);
+
+        int updated = flightService.updateStatuses(new BulkStatusUpdate(null,
+                new FlightFilter(null, null, null, FlightZone.SCHENGEN, null, null, false),
+                departure.minusHours(1), departure.plusHours(1), FlightStatus.OPÓŹNIONY, null));
+
+        assertEquals(5, updated);
+        List<FlightBatchChangedEvent> batches = events.stream(FlightBatchChangedEvent.class).toList();
+        assertEquals(List.of(2, 2, 1), batches.stream().map(batch -> batch.changes().size()).toList());
+        assertEquals(0, events.stream(FlightChangedEvent.class).count());
+        assertTrue(batches.stream().flatMap(batch -> batch.changes().stream()).allMatch(change ->
+                change.previous().getStatus() == FlightStatus.PLANOWANY && change.flight().getStatus() == FlightStatus.OPÓŹNIONY));
+        assertEquals(flights.stream().map(Flight::getId).sorted().toList(), batches.stream()
+                .flatMap(batch -> batch.changes().stream()).map(FlightChangedEvent::flightId).sorted().toList());
+        assertEquals(FlightStatus.PLANOWANY, flightRepository.findById(other.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void shouldBumpVersionsAndEtagsOfUpdatedFlights() {
+        Flight flight = save("LO610", FlightZone.SCHENGEN);
+        long version = flightService.getFlightVersion(flight.getId());
+        String etag = changeSequence.etag("flights");
+
+        flightService.updateStatuses(new BulkStatusUpdate(List.of(flight.getId()), null, null, null, FlightStatus.ODWOŁANY, null));
+
+        assertEquals(version + 1, flightService.getFlightVersion(flight.getId()));
+        assertEquals(version + 1, flightRepository.findById(flight.getId()).orElseThrow().getVersion());
+        assertNotEquals(etag, changeSequence.etag("flights"));
+    }
+
+    @Test
+    void shouldRejectRequestsWithoutSelectionOrStatus() {
+        Flight flight = save("LO620", FlightZone.SCHENGEN);
+
+        assertThrows(RuntimeException.class, () -> flightService.updateStatuses(
+                new BulkStatusUpdate(List.of(), new FlightFilter(null, null, null, null, null, null, false), null, null, FlightStatus.ODWOŁANY, null)));
+        assertThrows(RuntimeException.class, () -> flightService.updateStatuses(
+                new BulkStatusUpdate(List.of(flight.getId()), null, null, null, null, null)));
+
+        assertEquals(0, events.stream(FlightBatchChangedEvent.class).count());
+        assertEquals(FlightStatus.PLANOWANY, flightRepository.findById(flight.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void shouldRejectMovingTwoFlightsOfOneGateToTheSameTime() {
+        Gate gate = gateRepository.save(new Gate("B7"));
+        Flight first = save("LO630", FlightZone.SCHENGEN, gate, departure);
+        Flight second = save("LO631", FlightZone.SCHENGEN, gate, departure.plusHours(2));
+        Flight elsewhere = save("LO632", FlightZone.SCHENGEN, null, departure.plusHours(4));
+        gateSchedule.rebuild();
+
+        assertThrows(GateConflictException.class, () -> flightService.updateStatuses(new BulkStatusUpdate(
+                List.of(first.getId(), second.getId(), elsewhere.getId()), null, null, null, FlightStatus.OPÓŹNIONY,
+                departure.plusHours(1))));
+
+        assertEquals(0, events.stream(FlightBatchChangedEvent.class).count());
+        assertEquals(List.of(departure, departure.plusHours(2), departure.plusHours(4)), Stream.of(first, second, elsewhere)
+                .map(flight -> flightRepository.findById(flight.getId()).orElseThrow().getDepartureTime()).toList());
+        assertEquals(List.of(first.getId(), second.getId()), gateSchedule.schedule(gate.getId(), null, null).stream()
+                .map(GateOccupancy::flightId).toList());
+    }
+
+    private Flight save(String flightNumber, FlightZone zone, Gate gate, LocalDateTime departureTime) {
+        return flightRepository.save(Flight.builder()
+                .flightNumber(flightNumber)
+                .destination("Oslo")
+                .status(FlightStatus.PLANOWANY)
+                .departureTime(departureTime)
+                .zone(zone)
+                .gate(gate)
+                .build());
+    }
+
+    private Flight save(String flightNumber, FlightZone zone) {
+        return save(flightNumber, zone, null, departure);
+    }
+}
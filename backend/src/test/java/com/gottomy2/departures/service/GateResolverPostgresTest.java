@@ -0,0 +1,25 @@
+package com.gottomy2.departures.service;
+
+import com.gottomy2.departures.repository.GateRepository;
+import com.gottomy2.departures.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Ten sam test przeciążeniowy co {@link GateResolverTest}, ale na PostgreSQL, gdzie działa ścieżka ON CONFLICT.
+ */
+@SpringBootTest
+class GateResolverPostgresTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private GateResolver gateResolver;
+
+    @Autowired
+    private GateRepository gateRepository;
+
+    @Test
+    void concurrentUpsertsShouldCreateEachGateOnce() throws Exception {
+        GateResolverTest.assertNoDuplicatesUnderContention(gateResolver, gateRepository, "PG");
+    }
+}
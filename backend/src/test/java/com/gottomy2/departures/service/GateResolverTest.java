@@ -0,0 +1,126 @@
+package com.gottomy2.departures.service;
+
+import com.gottomy2.departures.model.Gate;
+import com.gottomy2.departures.repository.GateRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class GateResolverTest {
+
+    private static final int THREADS = 16;
+    private static final int GATES = 20;
+    private static final int ROUNDS = 50;
+
+    @Autowired
+    private GateResolver gateResolver;
+
+    @Autowired
+    private GateService gateService;
+
+    @Autowired
+    private GateRepository gateRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @AfterEach
+    void tearDown() {
+        gateRepository.findAll().forEach(gate -> gateResolver.evict(gate.getId()));
+        gateRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentResolvesShouldCreateEachGateOnce() throws Exception {
+        assertNoDuplicatesUnderContention(gateResolver, gateRepository, "S");
+    }
+
+    @Test
+    void shouldForgetGatesDeletedElsewhereAfterTtl() throws Exception {
+        GateResolver resolver = new GateResolver(jdbcTemplate, transactionManager, eventPublisher, 100, Duration.ofMillis(100));
+        Gate gate = resolver.resolve("T1");
+        // Usunięcie z pominięciem tej instancji (np. przez inną instancję) - lokalna mapa nie dostaje zdarzenia
+        jdbcTemplate.update("DELETE FROM gates WHERE id = ?", gate.getId());
+        assertEquals(gate.getId(), resolver.resolve("T1").getId());
+
+        Thread.sleep(200);
+
+        Gate recreated = resolver.resolve("T1");
+        assertNotEquals(gate.getId(), recreated.getId());
+        assertEquals(recreated.getId(), gateRepository.findByGateNumber("T1").orElseThrow().getId());
+    }
+
+    @Test
+    void renamedGateShouldNotResolveUnderOldNumber() {
+        Gate gate = gateResolver.resolve("R1");
+
+        gateService.updateGate(gate.getId(), new Gate("R2"));
+
+        assertEquals(gate.getId(), gateResolver.resolve("R2").getId());
+        assertNotEquals(gate.getId(), gateResolver.resolve("R1").getId());
+    }
+
+    static void assertNoDuplicatesUnderContention(GateResolver resolver, GateRepository repository, String prefix)
+            throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        Map<String, Set<Long>> idsByNumber = new ConcurrentHashMap<>();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int offset = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int round = 0; round < ROUNDS; round++) {
+                        String number = prefix + ((round + offset) % GATES);
+                        Gate gate = resolver.resolve(number);
+                        idsByNumber.computeIfAbsent(number, key -> ConcurrentHashMap.newKeySet()).add(gate.getId());
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            // get() rzuca, jeśli którykolwiek wątek dostał wyjątek
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<Gate> stored = repository.findAll().stream()
+                .filter(gate -> gate.getGateNumber().startsWith(prefix))
+                .toList();
+        assertEquals(GATES, stored.size());
+        assertEquals(GATES, stored.stream().map(Gate::getGateNumber).collect(Collectors.toSet()).size());
+        idsByNumber.values().forEach(ids -> assertEquals(1, ids.size()));
+    }
+}
@@ -0,0 +1,166 @@
+package com.gottomy2.departures.service;
+
+import com.gottomy2.departures.dto.GateConflict;
+import com.gottomy2.departures.dto.GateOccupancy;
+import com.gottomy2.departures.dto.GateSlot;
+import com.gottomy2.departures.exception.GateConflictException;
+import com.gottomy2.departures.model.Flight;
+import com.gottomy2.departures.model.FlightStatus;
+import com.gottomy2.departures.model.Gate;
+import com.gottomy2.departures.repository.FlightRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GateScheduleTest {
+
+    private static final LocalDateTime NOON = LocalDate.now().plusDays(1).atTime(12, 0);
+
+    private final FlightRepository flightRepository = mock(FlightRepository.class);
+
+    private final GateSchedule schedule = new GateSchedule(flightRepository, Duration.ofMinutes(45));
+
+    @BeforeEach
+    void setUp() {
+        when(flightRepository.findGateSlots(eq(FlightStatus.ODWOŁANY), any())).thenReturn(List.of(
+                new GateSlot(1L, 10L, NOON),
+                new GateSlot(2L, 10L, NOON.plusHours(2)),
+                new GateSlot(3L, 20L, NOON)));
+        schedule.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void shouldRejectOverlappingDepartureOnTheSameGate() {
+        GateConflictException ex = assertThrows(GateConflictException.class,
+                () -> schedule.reserve(flight(4L, 10L, NOON.plusMinutes(30), FlightStatus.PLANOWANY)));
+
+        assertTrue(ex.getMessage().contains("flight 1"));
+    }
+
+    @Test
+    void shouldAllowBackToBackDeparturesAndOtherGates() {
+        schedule.reserve(flight(4L, 10L, NOON.plusMinutes(45), FlightStatus.PLANOWANY));
+        schedule.reserve(flight(5L, 30L, NOON, FlightStatus.PLANOWANY));
+
+        assertEquals(List.of(1L, 4L, 2L), flightIds(schedule.schedule(10L, null, null)));
+    }
+
+    @Test
+    void shouldIgnoreTheFlightItselfAndCancelledFlights() {
+        schedule.reserve(flight(1L, 10L, NOON.plusMinutes(10), FlightStatus.OPÓŹNIONY));
+        schedule.reserve(flight(2L, 10L, NOON.plusMinutes(20), FlightStatus.ODWOŁANY));
+
+        assertEquals(List.of(1L), flightIds(schedule.schedule(10L, null, null)));
+    }
+
+    @Test
+    void shouldAnswerWindowQueries() {
+        assertFalse(schedule.isFree(10L, NOON.minusMinutes(10), NOON.plusMinutes(10)));
+        assertTrue(schedule.isFree(10L, NOON, NOON.plusMinutes(30)));
+        assertTrue(schedule.isFree(99L, NOON, NOON.plusHours(1)));
+        assertEquals(List.of(2L), flightIds(schedule.schedule(10L, NOON.plusHours(1), NOON.plusHours(3))));
+    }
+
+    @Test
+    void shouldReportConflictsCreatedOutsideReserve() {
+        schedule.onFlightChanged(FlightChangedEvent.updated(null, flight(3L, 10L, NOON.plusHours(2).minusMinutes(5), FlightStatus.PLANOWANY)));
+
+        List<GateConflict> conflicts = schedule.conflicts(null, null);
+
+        assertEquals(1, conflicts.size());
+        assertEquals(10L, conflicts.get(0).gateId());
+        assertEquals(3L, conflicts.get(0).first().flightId());
+        assertEquals(2L, conflicts.get(0).second().flightId());
+    }
+
+    @Test
+    void shouldRestorePreviousSlotOnRollback() {
+        TransactionSynchronizationManager.initSynchronization();
+        schedule.reserve(flight(1L, 20L, NOON.plusHours(5), FlightStatus.PLANOWANY));
+        assertTrue(schedule.isFree(10L, NOON.minusMinutes(10), NOON));
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertFalse(schedule.isFree(10L, NOON.minusMinutes(10), NOON));
+        assertEquals(List.of(3L), flightIds(schedule.schedule(20L, null, null)));
+    }
+
+    @Test
+    void shouldKeepChangesCommittedDuringRebuild() {
+        when(flightRepository.findGateSlots(eq(FlightStatus.ODWOŁANY), any())).thenAnswer(invocation -> {
+            // Odczyt z bazy sprzed zmiany lotu 2, zdarzenie przychodzi przed podmianą indeksu
+            schedule.onFlightChanged(FlightChangedEvent.updated(null, flight(2L, 20L, NOON.plusHours(4), FlightStatus.PLANOWANY)));
+            return List.of(new GateSlot(1L, 10L, NOON), new GateSlot(2L, 10L, NOON.plusHours(2)));
+        });
+
+        schedule.rebuild();
+
+        assertEquals(List.of(1L), flightIds(schedule.schedule(10L, null, null)));
+        assertEquals(List.of(2L), flightIds(schedule.schedule(20L, null, null)));
+    }
+
+    @Test
+    void shouldLoadAndKeepOnlySlotsThatHaveNotEnded() {
+        LocalDateTime now = LocalDateTime.now();
+        schedule.onFlightChanged(FlightChangedEvent.created(flight(4L, 30L, now.minusHours(1), FlightStatus.PLANOWANY)));
+        schedule.onFlightChanged(FlightChangedEvent.created(flight(5L, 30L, now.plusMinutes(30), FlightStatus.PLANOWANY)));
+
+        schedule.evictDeparted();
+
+        assertEquals(List.of(5L), flightIds(schedule.schedule(30L, null, null)));
+        verify(flightRepository).findGateSlots(eq(FlightStatus.ODWOŁANY),
+                argThat(from -> !from.isBefore(now.minusMinutes(46)) && !from.isAfter(now.minusMinutes(45))));
+    }
+
+    @Test
+    void shouldReserveBatchAllOrNothing() {
+        // Loty 1 i 2 zwalniają swoje sloty, więc zamiana godzin na gate 10 jest dozwolona
+        schedule.reserveAll(List.of(flight(1L, 10L, NOON.plusHours(2), FlightStatus.PLANOWANY),
+                flight(2L, 10L, NOON, FlightStatus.PLANOWANY)));
+        assertEquals(List.of(2L, 1L), flightIds(schedule.schedule(10L, null, null)));
+
+        // Dwa loty przeniesione na tę samą godzinę kolidują ze sobą; pierwszy z nich nie zostaje zarezerwowany
+        assertThrows(GateConflictException.class, () -> schedule.reserveAll(List.of(
+                flight(3L, 10L, NOON.plusHours(4), FlightStatus.PLANOWANY),
+                flight(4L, 10L, NOON.plusHours(4), FlightStatus.PLANOWANY))));
+        assertEquals(List.of(2L, 1L), flightIds(schedule.schedule(10L, null, null)));
+        assertEquals(List.of(3L), flightIds(schedule.schedule(20L, null, null)));
+    }
+
+    private static Flight flight(Long id, Long gateId, LocalDateTime departureTime, FlightStatus status) {
+        return Flight.builder()
+                .id(id)
+                .flightNumber("LO" + id)
+                .departureTime(departureTime)
+                .status(status)
+                .gate(new Gate(gateId, "G" + gateId))
+                .build();
+    }
+
+    private static List<Long> flightIds(List<GateOccupancy> occupancy) {
+        return occupancy.stream().map(GateOccupancy::flightId).toList();
+    }
+}
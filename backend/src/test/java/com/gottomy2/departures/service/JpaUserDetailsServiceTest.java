@@ -0,0 +1,44 @@
+package com.gottomy2.departures.service;
+
+import com.gottomy2.departures.model.User;
+import com.gottomy2.departures.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+class JpaUserDetailsServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    private final JpaUserDetailsService service = new JpaUserDetailsService(userRepository, 100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+
+    @Test
+    void shouldQueryDatabaseOncePerUser() {
+        when(userRepository.findByUsername("admin"))
+                .thenReturn(Optional.of(User.builder().username("admin").password("hash").build()));
+
+        UserDetails first = service.loadUserByUsername("admin");
+        ((org.springframework.security.core.userdetails.User) first).eraseCredentials();
+        UserDetails second = service.loadUserByUsername("admin");
+
+        assertNotSame(first, second);
+        assertEquals("hash", second.getPassword());
+        verify(userRepository, times(1)).findByUsername("admin");
+    }
+
+    @Test
+    void shouldThrowForUnknownUser() {
+        when(userRepository.findByUsername("ghost")).thenReturn(Optional.empty());
+
+        assertThrows(UsernameNotFoundException.class, () -> service.loadUserByUsername("ghost"));
+    }
+}
@@ -0,0 +1,116 @@
+package com.gottomy2.departures.service;
+
+import com.gottomy2.departures.dto.WeatherKey;
+import com.gottomy2.departures.exception.WeatherUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+class WeatherCacheTest {
+
+    private static final WeatherKey OSLO = new WeatherKey("Oslo", LocalDate.of(2025, 1, 14));
+
+    private final WeatherService weatherService = mock(WeatherService.class);
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldCacheLookupsWithoutData() throws Exception {
+        WeatherCache cache = cache(Duration.ofMinutes(10));
+        when(weatherService.getTemperature("Oslo", "2025-01-14")).thenReturn(null);
+
+        assertNull(cache.get(OSLO).get(1, TimeUnit.SECONDS));
+        assertNull(cache.get(OSLO).get(1, TimeUnit.SECONDS));
+
+        verify(weatherService, times(1)).getTemperature("Oslo", "2025-01-14");
+        assertEquals(1, cache.stats().hitCount());
+    }
+
+    @Test
+    void shouldNotCacheLookupsThatGotNoAnswer() throws Exception {
+        WeatherCache cache = cache(Duration.ofMinutes(10));
+        when(weatherService.getTemperature("Oslo", "2025-01-14"))
+                .thenThrow(new WeatherUnavailableException("Weather circuit is open"))
+                .thenReturn(-3.0);
+
+        assertNull(cache.get(OSLO).get(1, TimeUnit.SECONDS));
+        assertEquals(-3.0, cache.get(OSLO).get(1, TimeUnit.SECONDS));
+
+        verify(weatherService, times(2)).getTemperature("Oslo", "2025-01-14");
+    }
+
+    @Test
+    void shouldServeStaleValueWhileRefreshing() throws Exception {
+        WeatherCache cache = cache(Duration.ZERO);
+        when(weatherService.getTemperature("Oslo", "2025-01-14")).thenReturn(-3.0, -5.0);
+        cache.put(OSLO, -1.0);
+
+        CompletableFuture<Double> stale = cache.get(OSLO);
+
+        assertTrue(stale.isDone());
+        assertEquals(-1.0, stale.get());
+        verify(weatherService, timeout(1000)).getTemperature("Oslo", "2025-01-14");
+    }
+
+    @Test
+    void shouldNotBlockWorkersWhileWaitingForForecastOfSameCity() throws Exception {
+        WeatherCache cache = cache(Duration.ofMinutes(10));
+        LocalDate day = OSLO.date();
+        CountDownLatch osloReleased = new CountDownLatch(1);
+        when(weatherService.getMode()).thenReturn(WeatherService.Mode.FORECAST);
+        when(weatherService.getForecast("Oslo")).thenAnswer(invocation -> {
+            osloReleased.await(5, TimeUnit.SECONDS);
+            return Map.of(day, -3.0, day.plusDays(1), -4.0, day.plusDays(2), -5.0);
+        });
+        when(weatherService.getForecast("Bergen")).thenReturn(Map.of(day, 2.0));
+
+        CompletableFuture<Double> owner = cache.get(OSLO);
+        CompletableFuture<Double> second = cache.get(new WeatherKey("Oslo", day.plusDays(1)));
+        CompletableFuture<Double> third = cache.get(new WeatherKey("Oslo", day.plusDays(2)));
+        // Pula ma dwa wątki: jeden pobiera prognozę dla Oslo, drugi musi zostać wolny
+        assertEquals(2.0, cache.get(new WeatherKey("Bergen", day)).get(1, TimeUnit.SECONDS));
+        assertFalse(second.isDone());
+
+        osloReleased.countDown();
+        assertEquals(-3.0, owner.get(1, TimeUnit.SECONDS));
+        assertEquals(-4.0, second.get(1, TimeUnit.SECONDS));
+        assertEquals(-5.0, third.get(1, TimeUnit.SECONDS));
+        verify(weatherService, times(1)).getForecast("Oslo");
+    }
+
+    @Test
+    void shouldEvictBeyondMaximumSize() {
+        WeatherCache cache = cache(Duration.ofMinutes(10));
+        for (int day = 1; day <= 200; day++) {
+            cache.put(new WeatherKey("Oslo", LocalDate.of(2025, 1, 1).plusDays(day)), (double) day);
+        }
+        cache.cleanUp();
+
+        assertTrue(cache.stats().evictionCount() > 0);
+    }
+
+    private WeatherCache cache(Duration refreshAfter) {
+        return new WeatherCache(weatherService, executor, new SimpleMeterRegistry(),
+                100, Duration.ofMinutes(30), refreshAfter, Duration.ofMinutes(5));
+    }
+}
@@ -0,0 +1,79 @@
+package com.gottomy2.departures.service;
+
+import com.gottomy2.departures.model.Flight;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class WeatherEnricherTest {
+
+    private final WeatherService weatherService = mock(WeatherService.class);
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    private final WeatherCache weatherCache = new WeatherCache(weatherService, executor, new SimpleMeterRegistry(),
+            100, Duration.ofMinutes(30), Duration.ofMinutes(10), Duration.ofMinutes(5));
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldFetchEachCityAndDateOnce() {
+        WeatherEnricher enricher = new WeatherEnricher(weatherCache, 1000);
+        when(weatherService.getTemperature("Oslo", "2025-01-14")).thenReturn(-3.0);
+        when(weatherService.getTemperature("Rzym", "2025-01-14")).thenReturn(12.0);
+
+        List<Flight> page = List.of(
+                flight("Oslo", LocalDateTime.of(2025, 1, 14, 6, 0)),
+                flight("Oslo", LocalDateTime.of(2025, 1, 14, 18, 30)),
+                flight("Rzym", LocalDateTime.of(2025, 1, 14, 9, 15)));
+
+        enricher.enrich(page);
+        enricher.enrich(page);
+
+        assertEquals(-3.0, page.get(0).getTemperature());
+        assertEquals(-3.0, page.get(1).getTemperature());
+        assertEquals(12.0, page.get(2).getTemperature());
+        verify(weatherService, times(1)).getTemperature("Oslo", "2025-01-14");
+        verify(weatherService, times(1)).getTemperature("Rzym", "2025-01-14");
+    }
+
+    @Test
+    void shouldReturnWithinBudgetWhenProviderIsSlow() {
+        WeatherEnricher enricher = new WeatherEnricher(weatherCache, 100);
+        when(weatherService.getTemperature(anyString(), anyString())).thenAnswer(invocation -> {
+            Thread.sleep(2000);
+            return 20.0;
+        });
+
+        Flight flight = flight("Lizbona", LocalDateTime.of(2025, 1, 15, 10, 0));
+
+        long start = System.nanoTime();
+        enricher.enrich(List.of(flight));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertNull(flight.getTemperature());
+        assertTrue(elapsedMs < 1000, "enrich took " + elapsedMs + " ms");
+    }
+
+    private Flight flight(String destination, LocalDateTime departureTime) {
+        return Flight.builder()
+                .destination(destination)
+                .departureTime(departureTime)
+                .build();
+    }
+}
@@ -0,0 +1,95 @@
+package com.gottomy2.departures.service;
+
+import com.gottomy2.departures.dto.WeatherKey;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WeatherForecastTest {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2025, 1, 14);
+
+    private final AtomicInteger forecastCalls = new AtomicInteger();
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    private HttpServer server;
+
+    private WeatherCache weatherCache;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/forecast", exchange -> {
+            forecastCalls.incrementAndGet();
+            byte[] body = forecastJson().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        WeatherService weatherService = new WeatherService(new RestTemplate(),
+                new WeatherCircuitBreaker(meterRegistry, 5, Duration.ofSeconds(30)), meterRegistry,
+                "test", "http://localhost:" + server.getAddress().getPort(), WeatherService.Mode.FORECAST,
+                16, Duration.ofMillis(100));
+
+        weatherCache = new WeatherCache(weatherService, executor, meterRegistry,
+                100, Duration.ofMinutes(30), Duration.ofMinutes(10), Duration.ofMinutes(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldFillAllForecastDatesFromOneUpstreamCall() {
+        List<CompletableFuture<Double>> temperatures = IntStream.range(0, 5)
+                .mapToObj(day -> weatherCache.get(new WeatherKey("Oslo", FIRST_DAY.plusDays(day))))
+                .toList();
+
+        for (int day = 0; day < 5; day++) {
+            assertEquals(day * 1.5, temperatures.get(day).join());
+        }
+        assertEquals(1, forecastCalls.get());
+    }
+
+    // Pomiary co 6 godzin; w południe temperatura wynosi day * 1.5, o innych porach -20
+    private static String forecastJson() {
+        StringBuilder entries = new StringBuilder();
+        for (int day = 0; day < 5; day++) {
+            for (int hour = 0; hour < 24; hour += 6) {
+                double temperature = hour == 12 ? day * 1.5 : -20;
+                if (!entries.isEmpty()) {
+                    entries.append(',');
+                }
+                entries.append(String.format(java.util.Locale.ROOT,
+                        "{\"dt_txt\":\"%s %02d:00:00\",\"main\":{\"temp\":%.1f}}",
+                        FIRST_DAY.plusDays(day), hour, temperature));
+            }
+        }
+        return "{\"list\":[" + entries + "]}";
+    }
+}
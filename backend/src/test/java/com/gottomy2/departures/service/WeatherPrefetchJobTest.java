@@ -0,0 +1,80 @@
+package com.gottomy2.departures.service;
+
+import com.gottomy2.departures.dto.WeatherKey;
+import com.gottomy2.departures.repository.FlightRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class WeatherPrefetchJobTest {
+
+    private static final LocalDate DAY = LocalDate.now().plusDays(1);
+
+    private final FlightRepository flightRepository = mock(FlightRepository.class);
+
+    private final WeatherCache weatherCache = mock(WeatherCache.class);
+
+    private final FlightReadModel flightReadModel = mock(FlightReadModel.class);
+
+    private final ChangeSequence changeSequence = mock(ChangeSequence.class);
+
+    @Test
+    void shouldStoreTemperaturesBatchByBatch() {
+        WeatherKey oslo = new WeatherKey("Oslo", DAY);
+        WeatherKey rome = new WeatherKey("Rzym", DAY);
+        WeatherKey atlantis = new WeatherKey("Atlantyda", DAY);
+        when(flightRepository.findWeatherKeysDepartingBetween(any(), any())).thenReturn(List.of(oslo, rome, atlantis));
+        when(weatherCache.get(oslo)).thenReturn(CompletableFuture.completedFuture(-3.0));
+        when(weatherCache.get(rome)).thenReturn(CompletableFuture.completedFuture(14.0));
+        when(weatherCache.get(atlantis)).thenReturn(CompletableFuture.completedFuture(null));
+        when(flightRepository.updateTemperatures(Map.of(oslo, -3.0, rome, 14.0))).thenReturn(2);
+        when(flightRepository.updateTemperatures(Map.of())).thenReturn(0);
+
+        job(Duration.ofSeconds(1)).prefetch();
+
+        // Jeden batch na porcję; Atlantyda bez temperatury nie trafia do UPDATE
+        verify(flightRepository).updateTemperatures(Map.of(oslo, -3.0, rome, 14.0));
+        verify(flightRepository).updateTemperatures(Map.of());
+        verify(flightReadModel).applyTemperature(oslo, -3.0);
+        verify(flightReadModel).applyTemperature(rome, 14.0);
+        verify(flightReadModel, never()).applyTemperature(eq(atlantis), any());
+        // Dwie porcje (2 + 1), tylko pierwsza coś zmieniła
+        verify(changeSequence, times(1)).advance();
+    }
+
+    @Test
+    void shouldStoreArrivedTemperaturesWhenBatchTimesOut() {
+        WeatherKey oslo = new WeatherKey("Oslo", DAY);
+        WeatherKey stuck = new WeatherKey("Bergen", DAY);
+        when(flightRepository.findWeatherKeysDepartingBetween(any(), any())).thenReturn(List.of(oslo, stuck));
+        when(weatherCache.get(oslo)).thenReturn(CompletableFuture.completedFuture(-3.0));
+        when(weatherCache.get(stuck)).thenReturn(new CompletableFuture<>());
+        when(flightRepository.updateTemperatures(Map.of(oslo, -3.0))).thenReturn(1);
+
+        long start = System.nanoTime();
+        job(Duration.ofMillis(100)).prefetch();
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMs < 1000, "prefetch took " + elapsedMs + " ms");
+        verify(flightRepository).updateTemperatures(Map.of(oslo, -3.0));
+        verify(changeSequence).advance();
+    }
+
+    private WeatherPrefetchJob job(Duration batchTimeout) {
+        return new WeatherPrefetchJob(flightRepository, weatherCache, flightReadModel, changeSequence,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), new SimpleMeterRegistry(),
+                Duration.ofHours(48), 2, batchTimeout);
+    }
+}
@@ -0,0 +1,233 @@
+package com.gottomy2.departures.service;
+
+import com.gottomy2.departures.config.WeatherConfig;
+import com.gottomy2.departures.exception.WeatherUnavailableException;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * WeatherService na lokalnym, sztucznym dostawcy, który potrafi opóźniać odpowiedzi i zwracać błędy.
+ */
+class WeatherServiceResilienceTest {
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ExecutorService serverExecutor = Executors.newCachedThreadPool();
+
+    private volatile int latencyMs;
+
+    private volatile int status = 200;
+
+    private volatile String retryAfter;
+
+    private HttpServer server;
+
+    private WeatherCircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(serverExecutor);
+        server.createContext("/weather", exchange -> {
+            calls.incrementAndGet();
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{\"main\":{\"temp\":7.5}}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            if (retryAfter != null) {
+                exchange.getResponseHeaders().add("Retry-After", retryAfter);
+            }
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        circuitBreaker = new WeatherCircuitBreaker(meterRegistry, 3, Duration.ofMillis(300));
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void shouldGiveUpAfterReadTimeout() {
+        WeatherService weatherService = weatherService(16);
+        latencyMs = 1500;
+
+        long start = System.nanoTime();
+        assertThrows(WeatherUnavailableException.class, () -> weatherService.getTemperature("Oslo", "2025-01-14"));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMs < 1000, "call took " + elapsedMs + " ms");
+        assertEquals(1, meterRegistry.get("weather.request")
+                .tags("endpoint", "weather", "outcome", "failure").timer().count());
+    }
+
+    @Test
+    void shouldOpenCircuitAfterFailuresAndCloseAfterSuccessfulProbe() throws Exception {
+        WeatherService weatherService = weatherService(16);
+        status = 503;
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(WeatherUnavailableException.class, () -> weatherService.getTemperature("Oslo", "2025-01-14"));
+        }
+        assertEquals(WeatherCircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        assertThrows(WeatherUnavailableException.class, () -> weatherService.getTemperature("Oslo", "2025-01-14"));
+        assertEquals(3, calls.get());
+
+        status = 200;
+        Thread.sleep(400);
+
+        assertEquals(7.5, weatherService.getTemperature("Oslo", "2025-01-14"));
+        assertEquals(WeatherCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(1.0, meterRegistry.get("weather.circuit.transitions")
+                .tags("from", "HALF_OPEN", "to", "CLOSED").counter().count());
+    }
+
+    @Test
+    void shouldNotCountClientErrorsAsProviderFailures() {
+        WeatherService weatherService = weatherService(16);
+        status = 404;
+
+        for (int i = 0; i < 5; i++) {
+            assertNull(weatherService.getTemperature("Atlantyda", "2025-01-14"));
+        }
+
+        assertEquals(WeatherCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void shouldOpenCircuitForRetryAfterWhenThrottled() throws Exception {
+        WeatherService weatherService = weatherService(16);
+        status = 429;
+        retryAfter = "1";
+
+        // Jedno 429 otwiera obwód od razu, mimo progu 3 błędów
+        assertThrows(WeatherUnavailableException.class, () -> weatherService.getTemperature("Oslo", "2025-01-14"));
+        assertEquals(WeatherCircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        // open-duration to 300 ms, ale dostawca prosi o sekundę przerwy
+        status = 200;
+        Thread.sleep(500);
+        assertThrows(WeatherUnavailableException.class, () -> weatherService.getTemperature("Oslo", "2025-01-14"));
+        assertEquals(1, calls.get());
+
+        Thread.sleep(700);
+        assertEquals(7.5, weatherService.getTemperature("Oslo", "2025-01-14"));
+        assertEquals(WeatherCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(1.0, meterRegistry.get("weather.calls").tag("outcome", "throttled").counter().count());
+    }
+
+    @Test
+    void shouldRejectCallsBeyondBulkheadLimit() {
+        WeatherService weatherService = weatherService(2);
+        latencyMs = 500;
+
+        ExecutorService callers = Executors.newFixedThreadPool(6);
+        try {
+            List<CompletableFuture<Double>> results = IntStream.range(0, 6)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(
+                            () -> weatherService.getTemperature("Oslo", "2025-01-14"), callers))
+                    .toList();
+            // Odrzucone przez bulkhead i przeterminowane wywołania kończą się WeatherUnavailableException
+            results.forEach(result -> assertInstanceOf(WeatherUnavailableException.class,
+                    assertThrows(CompletionException.class, result::join).getCause()));
+        } finally {
+            callers.shutdownNow();
+        }
+
+        assertTrue(calls.get() <= 2, "upstream calls: " + calls.get());
+        assertEquals(4.0, meterRegistry.get("weather.calls").tag("outcome", "rejected").counter().count());
+    }
+
+    @Test
+    void shouldReopenCircuitWhenProbeFailsWithUnexpectedException() throws Exception {
+        RestTemplate restTemplate = mock(RestTemplate.class);
+        when(restTemplate.getForObject(anyString(), eq(Map.class), any(Object[].class)))
+                .thenThrow(new ResourceAccessException("down"), new ResourceAccessException("down"),
+                        new ResourceAccessException("down"), new IllegalStateException("boom"))
+                .thenReturn(Map.of("main", Map.of("temp", 7.5)));
+        WeatherService weatherService = weatherService(restTemplate, 16);
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(WeatherUnavailableException.class, () -> weatherService.getTemperature("Oslo", "2025-01-14"));
+        }
+        Thread.sleep(400);
+
+        // Próba w HALF_OPEN kończy się nieoczekiwanym wyjątkiem - obwód wraca do OPEN zamiast zawisnąć
+        assertThrows(WeatherUnavailableException.class, () -> weatherService.getTemperature("Oslo", "2025-01-14"));
+        assertEquals(WeatherCircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        Thread.sleep(400);
+        assertEquals(7.5, weatherService.getTemperature("Oslo", "2025-01-14"));
+        assertEquals(WeatherCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void shouldCloseConnectionPoolWithHttpClient() throws Exception {
+        CloseableHttpClient httpClient = httpClient();
+        WeatherService weatherService = weatherService(new WeatherConfig().weatherRestTemplate(new RestTemplateBuilder(), httpClient), 16);
+        assertEquals(7.5, weatherService.getTemperature("Oslo", "2025-01-14"));
+
+        httpClient.close();
+
+        assertThrows(WeatherUnavailableException.class, () -> weatherService.getTemperature("Oslo", "2025-01-14"));
+        assertEquals(1, calls.get());
+    }
+
+    private WeatherService weatherService(int maxConcurrentCalls) {
+        return weatherService(new WeatherConfig().weatherRestTemplate(new RestTemplateBuilder(), httpClient()), maxConcurrentCalls);
+    }
+
+    private WeatherService weatherService(RestTemplate restTemplate, int maxConcurrentCalls) {
+        return new WeatherService(restTemplate, circuitBreaker, meterRegistry, "test",
+                "http://localhost:" + server.getAddress().getPort(), WeatherService.Mode.CURRENT,
+                maxConcurrentCalls, Duration.ofMillis(50));
+    }
+
+    private CloseableHttpClient httpClient() {
+        return new WeatherConfig().weatherHttpClient(meterRegistry,
+                8, Duration.ofMillis(200), Duration.ofMillis(300), Duration.ofMillis(100));
+    }
+}
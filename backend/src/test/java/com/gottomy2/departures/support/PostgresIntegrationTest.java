@@ -0,0 +1,26 @@
+package com.gottomy2.departures.support;
+
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.test.context.TestPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Baza testów, które potrzebują prawdziwego PostgreSQL (plany zapytań, upserty, partycje).
+ * Schemat zakładają migracje Liquibase; bez Dockera testy są pomijane.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@TestPropertySource(properties = {
+        // Profil "test" (H2) wyłącza Liquibase - tu schemat ma pochodzić z migracji, nie z Hibernate
+        "spring.liquibase.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=none",
+        // Konteksty testów dzielą bazę; blokadę sprawdza SingleInstanceLockTest
+        "departures.single-instance.enabled=false"
+})
+public abstract class PostgresIntegrationTest {
+
+    @Container
+    @ServiceConnection
+    protected static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+}
@@ -0,0 +1,17 @@
+CREATE TABLE gates (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    gate_number VARCHAR(10) NOT NULL UNIQUE,
+    version BIGINT DEFAULT 0 NOT NULL
+);
+
+CREATE TABLE flights (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    flight_number VARCHAR(10),
+    destination VARCHAR(100),
+    status VARCHAR(20),
+    departure_time TIMESTAMP,
+    zone VARCHAR(20),
+    gate_id BIGINT REFERENCES gates (id),
+    temperature DOUBLE PRECISION,
+    version BIGINT DEFAULT 0 NOT NULL
+);